@@ -19,6 +19,10 @@ import java.util.Objects;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.detail", attributeNodes = {    // карточка бронирования: вещь и букер одним запросом
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 public class Booking {
 
     @Id
@@ -43,9 +47,25 @@ public class Booking {
     @ToString.Exclude
     private User booker;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    @JoinColumn(name = "owner_id", nullable = false)
+    @ToString.Exclude
+    private User owner;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    public Booking(Integer id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+        this.owner = item != null ? item.getOwner() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
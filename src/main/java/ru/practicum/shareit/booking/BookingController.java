@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +17,8 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -38,19 +41,48 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsForUser(@RequestHeader("X-Sharer-User-Id") Integer bookerId,
-                                               @RequestParam(defaultValue = "ALL") String state,
-                                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                               @Positive @RequestParam(defaultValue = "10") int size) {
-        return bookingService.getBookingsForUser(bookerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsForUser(@RequestHeader("X-Sharer-User-Id") Integer bookerId,
+                                                               @RequestParam(defaultValue = "ALL") String state,
+                                                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                               @Positive @RequestParam(defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.getBookingsForUser(bookerId, state, from, size)
+                : bookingService.getBookingsForUserAfter(bookerId, state, cursor, size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Integer ownerId,
-                                                @RequestParam(defaultValue = "ALL") String state,
-                                                @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                @Positive @RequestParam(defaultValue = "10") int size) {
-        return bookingService.getBookingsForOwner(ownerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Integer ownerId,
+                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                                @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                                @Positive @RequestParam(defaultValue = "10") int size,
+                                                                @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.getBookingsForOwner(ownerId, state, from, size)
+                : bookingService.getBookingsForOwnerAfter(ownerId, state, cursor, size);
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping("/count")
+    public long countBookingsForUser(@RequestHeader("X-Sharer-User-Id") Integer bookerId,
+                                     @RequestParam(defaultValue = "ALL") String state) {
+        return bookingService.countBookingsForUser(bookerId, state);
+    }
+
+    @GetMapping("/owner/count")
+    public long countBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Integer ownerId,
+                                      @RequestParam(defaultValue = "ALL") String state) {
+        return bookingService.countBookingsForOwner(ownerId, state);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode())
+                .body(bookings);
     }
 
 }
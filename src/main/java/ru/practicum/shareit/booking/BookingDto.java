@@ -1,11 +1,9 @@
 package ru.practicum.shareit.booking;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.user.User;
+import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.Future;
 import javax.validation.constraints.NotNull;
@@ -26,13 +24,32 @@ public class BookingDto {
     @Future(message = "Завершение бронирования не может быть в прошлом")
     private LocalDateTime end;
 
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     @NotNull(message = "Нужно указать объект бронирования")
-    private Item item;
+    private BookedItem item;
 
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-    private User booker;
+    private Booker booker;
 
     private BookingStatus status;
 
+    // для JPQL-проекции списков: вещь и букер приходят плоскими колонками, без загрузки сущностей
+    public BookingDto(Integer id, LocalDateTime start, LocalDateTime end,
+                      Integer itemId, String itemName, Integer bookerId, BookingStatus status) {
+        this(id, start, end, new BookedItem(itemId, itemName), new Booker(bookerId), status);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BookedItem {
+        private Integer id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Booker {
+        private Integer id;
+    }
+
 }
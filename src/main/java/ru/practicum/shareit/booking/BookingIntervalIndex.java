@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utility.IntervalTree;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final Map<Integer, IntervalTree> trees = new ConcurrentHashMap<>();
+
+    public Optional<Booking> reserve(Integer itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> save) {
+        IntervalTree tree = getTree(itemId);
+        synchronized (tree) {
+            if (tree.overlaps(toMicros(start), toMicros(end))) {
+                return Optional.empty();
+            }
+            Booking booking = save.get();
+            tree.add(toMicros(start), toMicros(end), booking.getId());
+            TransactionHooks.afterRollback(() -> remove(itemId, start, booking.getId()));
+            return Optional.of(booking);
+        }
+    }
+
+    public void release(Integer itemId, LocalDateTime start, Integer bookingId) {
+        TransactionHooks.afterCommit(() -> remove(itemId, start, bookingId));
+    }
+
+    public boolean isFree(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = getTree(itemId);
+        synchronized (tree) {
+            return !tree.overlaps(toMicros(start), toMicros(end));
+        }
+    }
+
+    public static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private void remove(Integer itemId, LocalDateTime start, Integer bookingId) {
+        IntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            tree.remove(toMicros(start), bookingId);
+        }
+    }
+
+    // дерево загружается вне карты: computeIfAbsent держал бы блокировку сегмента ConcurrentHashMap на время запроса
+    // к базе. Если вещь одновременно загрузили два потока, остаётся первое дерево. Закончившиеся брони из дерева
+    // выбрасываются при каждом обращении, чтобы оно не росло вместе с историей вещи.
+    private IntervalTree getTree(Integer itemId) {
+        IntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            IntervalTree loaded = load(itemId);
+            tree = trees.putIfAbsent(itemId, loaded);
+            if (tree == null) {
+                tree = loaded;
+            }
+        }
+        synchronized (tree) {
+            tree.removeEndedBefore(toMicros(LocalDateTime.now()));
+        }
+        return tree;
+    }
+
+    private IntervalTree load(Integer itemId) {
+        List<BookingItemDto> bookings = bookingRepository.findActiveBookingsForItem(itemId, LocalDateTime.now());
+        IntervalTree tree = new IntervalTree();
+        for (BookingItemDto booking : bookings) {
+            tree.add(toMicros(booking.getStart()), toMicros(booking.getEnd()), booking.getId());
+        }
+        log.info("Загружено {} активных бронирований вещи id={}", bookings.size(), itemId);
+        return tree;
+    }
+}
@@ -30,4 +30,9 @@ public class BookingItemDto {
     private Integer bookerId;
     private String status;
 
+    public BookingItemDto(Integer id, LocalDateTime start, LocalDateTime end,
+                          Integer itemId, Integer bookerId, BookingStatus status) {
+        this(id, start, end, itemId, bookerId, status.toString());
+    }
+
 }
@@ -10,8 +10,8 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
+                .item(new BookingDto.BookedItem(booking.getItem().getId(), booking.getItem().getName()))
+                .booker(new BookingDto.Booker(booking.getBooker().getId()))
                 .status(booking.getStatus())
                 .build();
     }
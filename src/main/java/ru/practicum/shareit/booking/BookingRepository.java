@@ -1,61 +1,236 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
-    String OWNER_QUERY = "SELECT bk " +
+    @EntityGraph("Booking.detail")
+    Optional<Booking> findDetailedById(Integer bookingId);                                                       // booking detail
+
+    String BOOKING_DTO = "SELECT new ru.practicum.shareit.booking.BookingDto(" +
+            "bk.id, bk.start, bk.end, it.id, it.name, bk.booker.id, bk.status) " +
             "FROM Booking bk " +
-            "JOIN bk.item it " +
-            "JOIN it.owner ow " +
-            "WHERE ow.id = ?1 ";
+            "JOIN bk.item it ";
+
+    String OWNER_QUERY = BOOKING_DTO +
+            "WHERE bk.owner.id = ?1 ";
 
-    String ORDER_QUERY = " ORDER BY bk.start DESC";
+    String BOOKER_QUERY = BOOKING_DTO +
+            "WHERE bk.booker.id = ?1 ";
+
+    String ORDER_QUERY = " ORDER BY bk.start DESC, bk.id DESC";
 
     @Query(OWNER_QUERY + ORDER_QUERY)
-    Page<Booking> getBookingsForOwner(Integer userId, Pageable page);                                                                // ALL for owner
+    Slice<BookingDto> getBookingsForOwner(Integer userId, Pageable page);                                                                // ALL for owner
 
-    @Query(OWNER_QUERY + "AND UPPER(bk.status) = UPPER(?2)" + ORDER_QUERY)
-    Page<Booking> getBookingsForOwnerByStatus(Integer userId, String state, Pageable page);                                          // BY STATUS for owner
+    @Query(OWNER_QUERY + "AND bk.status = ?2" + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForOwnerByStatus(Integer userId, BookingStatus status, Pageable page);                                      // BY STATUS for owner
 
     @Query(OWNER_QUERY + "AND bk.start < ?2 AND bk.end > ?3" + ORDER_QUERY)
-    Page<Booking> getBookingsForOwnerCurrent(Integer userId, LocalDateTime start, LocalDateTime end, Pageable page);                 // CURRENT for owner
+    Slice<BookingDto> getBookingsForOwnerCurrent(Integer userId, LocalDateTime start, LocalDateTime end, Pageable page);                 // CURRENT for owner
 
     @Query(OWNER_QUERY + "AND bk.end < ?2" + ORDER_QUERY)
-    Page<Booking> getBookingsForOwnerPast(Integer userId, LocalDateTime end, Pageable page);                                          // PAST
+    Slice<BookingDto> getBookingsForOwnerPast(Integer userId, LocalDateTime end, Pageable page);                                          // PAST
 
     @Query(OWNER_QUERY + "AND bk.start > ?2" + ORDER_QUERY)
-    Page<Booking> getBookingsForOwnerFuture(Integer userId, LocalDateTime start, Pageable page);                                      // FUTURE
+    Slice<BookingDto> getBookingsForOwnerFuture(Integer userId, LocalDateTime start, Pageable page);                                      // FUTURE
 
-    Page<Booking> findAllByBookerIdOrderByStartDesc(Integer userId, Pageable page);                                                       // ALL for user
+    @Query(BOOKER_QUERY + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForBooker(Integer userId, Pageable page);                                                            // ALL for user
 
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Integer userId, LocalDateTime start, LocalDateTime end, Pageable page);       // CURRENT for user
+    @Query(BOOKER_QUERY + "AND bk.start < ?2 AND bk.end > ?3" + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForBookerCurrent(Integer userId, LocalDateTime start, LocalDateTime end, Pageable page);             // CURRENT for user
 
-    Page<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Integer userId, LocalDateTime end, Pageable page);                        // PAST
+    @Query(BOOKER_QUERY + "AND bk.end < ?2" + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForBookerPast(Integer userId, LocalDateTime end, Pageable page);                                      // PAST
 
-    Page<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Integer userId, LocalDateTime start, Pageable page);                     // FUTURE
+    @Query(BOOKER_QUERY + "AND bk.start > ?2" + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForBookerFuture(Integer userId, LocalDateTime start, Pageable page);                                  // FUTURE
 
-    Page<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Integer userId, BookingStatus status, Pageable page);                        // WAITING / REJECTED
+    @Query(BOOKER_QUERY + "AND bk.status = ?2" + ORDER_QUERY)
+    Slice<BookingDto> getBookingsForBookerByStatus(Integer userId, BookingStatus status, Pageable page);                                  // WAITING / REJECTED
 
-    String BOOKING_FOR_ITEM = "SELECT bk " +
+    String OWNER_COUNT_QUERY = "SELECT COUNT(bk) " +
+            "FROM Booking bk " +
+            "WHERE bk.owner.id = ?1 ";
+
+    @Query(OWNER_COUNT_QUERY)
+    long countBookingsForOwner(Integer userId);
+
+    @Query(OWNER_COUNT_QUERY + "AND bk.status = ?2")
+    long countBookingsForOwnerByStatus(Integer userId, BookingStatus status);
+
+    @Query(OWNER_COUNT_QUERY + "AND bk.start < ?2 AND bk.end > ?2")
+    long countBookingsForOwnerCurrent(Integer userId, LocalDateTime now);
+
+    @Query(OWNER_COUNT_QUERY + "AND bk.end < ?2")
+    long countBookingsForOwnerPast(Integer userId, LocalDateTime now);
+
+    @Query(OWNER_COUNT_QUERY + "AND bk.start > ?2")
+    long countBookingsForOwnerFuture(Integer userId, LocalDateTime now);
+
+    long countByBookerId(Integer userId);
+
+    long countByBookerIdAndStartBeforeAndEndAfter(Integer userId, LocalDateTime start, LocalDateTime end);
+
+    long countByBookerIdAndEndBefore(Integer userId, LocalDateTime end);
+
+    long countByBookerIdAndStartAfter(Integer userId, LocalDateTime start);
+
+    long countByBookerIdAndStatus(Integer userId, BookingStatus status);
+
+    String SEEK_QUERY = "AND (bk.start < :cursorStart OR (bk.start = :cursorStart AND bk.id < :cursorId))";
+
+    String OWNER_SEEK_QUERY = BOOKING_DTO +
+            "WHERE bk.owner.id = :userId " + SEEK_QUERY;
+
+    String BOOKER_SEEK_QUERY = BOOKING_DTO +
+            "WHERE bk.booker.id = :userId " + SEEK_QUERY;
+
+    @Query(OWNER_SEEK_QUERY + ORDER_QUERY)
+    List<BookingDto> getBookingsForOwnerAfter(@Param("userId") Integer userId,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Integer cursorId,
+                                              Pageable page);                                                        // ALL for owner, keyset
+
+    @Query(OWNER_SEEK_QUERY + " AND bk.status = :status" + ORDER_QUERY)
+    List<BookingDto> getBookingsForOwnerByStatusAfter(@Param("userId") Integer userId,
+                                                      @Param("status") BookingStatus status,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Integer cursorId,
+                                                      Pageable page);                                                // BY STATUS for owner, keyset
+
+    @Query(OWNER_SEEK_QUERY + " AND bk.start < :now AND bk.end > :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForOwnerCurrentAfter(@Param("userId") Integer userId,
+                                                     @Param("now") LocalDateTime now,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") Integer cursorId,
+                                                     Pageable page);                                                 // CURRENT for owner, keyset
+
+    @Query(OWNER_SEEK_QUERY + " AND bk.end < :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForOwnerPastAfter(@Param("userId") Integer userId,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") Integer cursorId,
+                                                  Pageable page);                                                    // PAST for owner, keyset
+
+    @Query(OWNER_SEEK_QUERY + " AND bk.start > :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForOwnerFutureAfter(@Param("userId") Integer userId,
+                                                    @Param("now") LocalDateTime now,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Integer cursorId,
+                                                    Pageable page);                                                  // FUTURE for owner, keyset
+
+    @Query(BOOKER_SEEK_QUERY + ORDER_QUERY)
+    List<BookingDto> getBookingsForBookerAfter(@Param("userId") Integer userId,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Integer cursorId,
+                                               Pageable page);                                                       // ALL for user, keyset
+
+    @Query(BOOKER_SEEK_QUERY + " AND bk.status = :status" + ORDER_QUERY)
+    List<BookingDto> getBookingsForBookerByStatusAfter(@Param("userId") Integer userId,
+                                                       @Param("status") BookingStatus status,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") Integer cursorId,
+                                                       Pageable page);                                               // WAITING / REJECTED, keyset
+
+    @Query(BOOKER_SEEK_QUERY + " AND bk.start < :now AND bk.end > :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForBookerCurrentAfter(@Param("userId") Integer userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Integer cursorId,
+                                                      Pageable page);                                                // CURRENT for user, keyset
+
+    @Query(BOOKER_SEEK_QUERY + " AND bk.end < :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForBookerPastAfter(@Param("userId") Integer userId,
+                                                   @Param("now") LocalDateTime now,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Integer cursorId,
+                                                   Pageable page);                                                   // PAST for user, keyset
+
+    @Query(BOOKER_SEEK_QUERY + " AND bk.start > :now" + ORDER_QUERY)
+    List<BookingDto> getBookingsForBookerFutureAfter(@Param("userId") Integer userId,
+                                                     @Param("now") LocalDateTime now,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") Integer cursorId,
+                                                     Pageable page);                                                 // FUTURE for user, keyset
+
+    String BOOKING_FOR_ITEM = "SELECT new ru.practicum.shareit.booking.BookingItemDto(" +
+            "bk.id, bk.start, bk.end, it.id, bk.booker.id, bk.status) " +
             "FROM Booking bk " +
             "JOIN bk.item it " +
-            "WHERE it.id = ?1 ";
+            "WHERE it.id = ?1 AND bk.status <> ru.practicum.shareit.booking.BookingStatus.REJECTED ";
 
     @Query(BOOKING_FOR_ITEM + "AND bk.start < ?2 ORDER BY bk.start DESC")
-    List<Booking> findLastBookingForItem(Integer itemId, LocalDateTime start);
+    List<BookingItemDto> findLastBookingsForItem(Integer itemId, LocalDateTime now, Pageable page);
 
     @Query(BOOKING_FOR_ITEM + "AND bk.start > ?2 ORDER BY bk.start ASC")
-    List<Booking> findNextBookingForItem(Integer itemId, LocalDateTime start);
+    List<BookingItemDto> findNextBookingsForItem(Integer itemId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_FOR_ITEM + "AND bk.end > ?2")
+    List<BookingItemDto> findActiveBookingsForItem(Integer itemId, LocalDateTime now);                            // WAITING + APPROVED not finished
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingItemDto(" +
+            "bk.id, bk.start, bk.end, bk.item.id, bk.booker.id, bk.status) " +
+            "FROM Booking bk " +
+            "WHERE bk.status <> ru.practicum.shareit.booking.BookingStatus.REJECTED AND bk.end > ?1")
+    List<BookingItemDto> findAllActiveBookings(LocalDateTime now);                                                 // WAITING + APPROVED for all items
+
+    default Optional<BookingItemDto> findLastBookingForItem(Integer itemId, LocalDateTime now) {
+        return findLastBookingsForItem(itemId, now, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    default Optional<BookingItemDto> findNextBookingForItem(Integer itemId, LocalDateTime now) {
+        return findNextBookingsForItem(itemId, now, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query(value = "SELECT id AS \"id\", start_date AS \"start\", end_date AS \"end\", item_id AS \"itemId\", " +
+            "booker_id AS \"bookerId\", status AS \"status\" " +
+            "FROM (SELECT bk.id, bk.start_date, bk.end_date, bk.item_id, bk.booker_id, bk.status, ROW_NUMBER() OVER (" +
+            "PARTITION BY bk.item_id, bk.start_date < ?2 " +
+            "ORDER BY CASE WHEN bk.start_date < ?2 THEN bk.start_date END DESC, bk.start_date ASC) AS rn " +
+            "FROM bookings bk " +
+            "WHERE bk.item_id IN (?1) AND bk.status <> 'REJECTED' AND bk.start_date <> ?2) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<BookingItemRow> findLastAndNextBookingRowsForItems(Collection<Integer> itemIds, LocalDateTime now);     // last + next for every item
+
+    default List<BookingItemDto> findLastAndNextBookingsForItems(Collection<Integer> itemIds, LocalDateTime now) {
+        return findLastAndNextBookingRowsForItems(itemIds, now).stream()
+                .map(row -> new BookingItemDto(row.getId(), row.getStart(), row.getEnd(),
+                        row.getItemId(), row.getBookerId(), row.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    // native row: BookingItemDto fields only, no item or booker entities
+    interface BookingItemRow {
+        Integer getId();
+
+        LocalDateTime getStart();
+
+        LocalDateTime getEnd();
+
+        Integer getItemId();
+
+        Integer getBookerId();
+
+        String getStatus();
+    }
 
+    @EntityGraph("Booking.detail")
     @Query("SELECT bk " +
             "FROM Booking bk " +
             "JOIN bk.item it " +
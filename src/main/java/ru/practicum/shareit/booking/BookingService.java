@@ -12,4 +12,12 @@ public interface BookingService {
     List<BookingDto> getBookingsForUser(Integer userId, String state, int from, int size);
 
     List<BookingDto> getBookingsForOwner(Integer userId, String state, int from, int size);
+
+    List<BookingDto> getBookingsForUserAfter(Integer userId, String state, String cursor, int size);
+
+    List<BookingDto> getBookingsForOwnerAfter(Integer userId, String state, String cursor, int size);
+
+    long countBookingsForUser(Integer userId, String state);
+
+    long countBookingsForOwner(Integer userId, String state);
 }
\ No newline at end of file
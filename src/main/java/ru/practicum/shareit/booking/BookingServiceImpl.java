@@ -2,8 +2,8 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -17,7 +17,6 @@ import ru.practicum.shareit.utility.PageDefinition;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,6 +28,9 @@ public class BookingServiceImpl implements BookingService {
     private final UserService userService;
     private final ItemService itemService;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+    private final ItemOccupancyIndex itemOccupancyIndex;
 
     @Override
     @Transactional
@@ -52,8 +54,15 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = BookingMapper.toBooking(bookingItemDto);
         booking.setBooker(user);
         booking.setItem(item);
+        booking.setOwner(item.getOwner());
         booking.setStatus(BookingStatus.WAITING);
-        Booking newBooking = bookingRepository.save(booking);
+        Booking newBooking = bookingIntervalIndex.reserve(item.getId(), booking.getStart(), booking.getEnd(),
+                () -> bookingRepository.save(booking)).orElseThrow(() -> {
+                    log.warn("Вещь уже забронирована на это время");
+                    return new ValidationException("Вещь уже забронирована на это время");
+                });
+        itemAvailabilityCalendar.occupy(item.getId(), newBooking.getStart(), newBooking.getEnd());
+        itemOccupancyIndex.occupy(item.getId(), newBooking.getStart(), newBooking.getEnd());
         log.info("Создано бронирование id={}", newBooking.getId());
 
         return BookingMapper.toBookingDto(newBooking);
@@ -62,20 +71,29 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public BookingDto responseToBooking(Integer userId, Integer bookingId, Boolean approved) {
         Booking booking = checkBookingForExist(bookingId);
-        Integer ownerId = booking.getItem().getOwner().getId();
+        Integer ownerId = booking.getOwner().getId();
         if (!ownerId.equals(userId)) {
             log.warn("id владельца объекта не совпадают");
             throw new NotFoundException("Только владелец объекта может подтверждать бронирование");
         }
+        // ответить можно только на ожидающее бронирование: отклонённое уже освободило слот в индексах,
+        // и его повторное подтверждение или отклонение испортило бы чужие брони на том же интервале
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
             log.warn("Повторное подтверждение");
             throw new ValidationException("Бронирование уже подтверждено");
         }
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+            log.warn("Ответ на бронирование в статусе {}", booking.getStatus());
+            throw new ValidationException("Бронирование уже отклонено");
+        }
         if (approved) {
             booking.setStatus(BookingStatus.APPROVED);
             log.info("Бронирование id={} подтверждено", booking.getId());
         } else {
             booking.setStatus(BookingStatus.REJECTED);
+            bookingIntervalIndex.release(booking.getItem().getId(), booking.getStart(), booking.getId());
+            itemAvailabilityCalendar.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+            itemOccupancyIndex.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
             log.info("Бронирование id={} отклонено", booking.getId());
         }
         return BookingMapper.toBookingDto(bookingRepository.save(booking));
@@ -90,7 +108,7 @@ public class BookingServiceImpl implements BookingService {
             log.warn("Пользователь не найден");
             return new NotFoundException("Такой пользователь не найден");
         });*/
-        Integer ownerId = booking.getItem().getOwner().getId();
+        Integer ownerId = booking.getOwner().getId();
         Integer bookerId = booking.getBooker().getId();
         if (!ownerId.equals(userId) && !bookerId.equals(userId)) {
             log.warn("id пользователя не соответствует участникам бронирования");
@@ -108,23 +126,23 @@ public class BookingServiceImpl implements BookingService {
             return new NotFoundException("Такой пользователь не найден");
         });*/
         PageRequest page = PageDefinition.definePage(from, size);
-        Page<Booking> userBookings;
+        Slice<BookingDto> userBookings;
         switch (state) {
             case "ALL":
-                userBookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page);
+                userBookings = bookingRepository.getBookingsForBooker(userId, page);
                 break;
             case "CURRENT":
-                userBookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now(), page);
+                userBookings = bookingRepository.getBookingsForBookerCurrent(userId, LocalDateTime.now(), LocalDateTime.now(), page);
                 break;
             case "PAST":
-                userBookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
+                userBookings = bookingRepository.getBookingsForBookerPast(userId, LocalDateTime.now(), page);
                 break;
             case "FUTURE":
-                userBookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
+                userBookings = bookingRepository.getBookingsForBookerFuture(userId, LocalDateTime.now(), page);
                 break;
             case "WAITING":
             case "REJECTED":
-                userBookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.valueOf(state), page);
+                userBookings = bookingRepository.getBookingsForBookerByStatus(userId, BookingStatus.valueOf(state), page);
                 break;
             default:
                 log.warn("Некорректный статус бронирования");
@@ -132,7 +150,7 @@ public class BookingServiceImpl implements BookingService {
         }
         log.info("Получен список бронирований для пользователя id={} по условию {}", userId, state);
 
-        return userBookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        return userBookings.getContent();
     }
 
     @Override
@@ -144,7 +162,7 @@ public class BookingServiceImpl implements BookingService {
             return new NotFoundException("Такой пользователь не найден");
         });*/
         PageRequest page = PageDefinition.definePage(from, size);
-        Page<Booking> ownerBookings;
+        Slice<BookingDto> ownerBookings;
         switch (state) {
             case "ALL":
                 ownerBookings = bookingRepository.getBookingsForOwner(userId, page);
@@ -160,7 +178,7 @@ public class BookingServiceImpl implements BookingService {
                 break;
             case "WAITING":
             case "REJECTED":
-                ownerBookings = bookingRepository.getBookingsForOwnerByStatus(userId, state, page);
+                ownerBookings = bookingRepository.getBookingsForOwnerByStatus(userId, BookingStatus.valueOf(state), page);
                 break;
             default:
                 log.warn("Некорректный статус бронирования");
@@ -168,11 +186,135 @@ public class BookingServiceImpl implements BookingService {
         }
         log.info("Получен список бронирований для владельца id={} по условию {}", userId, state);
 
-        return ownerBookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        return ownerBookings.getContent();
+    }
+
+    @Override
+    public List<BookingDto> getBookingsForUserAfter(Integer userId, String state, String cursor, int size) {
+        userService.getUserById(userId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, size);
+        List<BookingDto> userBookings;
+        switch (state) {
+            case "ALL":
+                userBookings = bookingRepository.getBookingsForBookerAfter(userId, after.getStart(), after.getId(), page);
+                break;
+            case "CURRENT":
+                userBookings = bookingRepository.getBookingsForBookerCurrentAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "PAST":
+                userBookings = bookingRepository.getBookingsForBookerPastAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "FUTURE":
+                userBookings = bookingRepository.getBookingsForBookerFutureAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "WAITING":
+            case "REJECTED":
+                userBookings = bookingRepository.getBookingsForBookerByStatusAfter(userId, BookingStatus.valueOf(state), after.getStart(), after.getId(), page);
+                break;
+            default:
+                log.warn("Некорректный статус бронирования");
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        log.info("Получен список бронирований для пользователя id={} по условию {} после курсора", userId, state);
+
+        return userBookings;
+    }
+
+    @Override
+    public List<BookingDto> getBookingsForOwnerAfter(Integer userId, String state, String cursor, int size) {
+        userService.getUserById(userId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, size);
+        List<BookingDto> ownerBookings;
+        switch (state) {
+            case "ALL":
+                ownerBookings = bookingRepository.getBookingsForOwnerAfter(userId, after.getStart(), after.getId(), page);
+                break;
+            case "CURRENT":
+                ownerBookings = bookingRepository.getBookingsForOwnerCurrentAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "PAST":
+                ownerBookings = bookingRepository.getBookingsForOwnerPastAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "FUTURE":
+                ownerBookings = bookingRepository.getBookingsForOwnerFutureAfter(userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case "WAITING":
+            case "REJECTED":
+                ownerBookings = bookingRepository.getBookingsForOwnerByStatusAfter(userId, BookingStatus.valueOf(state), after.getStart(), after.getId(), page);
+                break;
+            default:
+                log.warn("Некорректный статус бронирования");
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        log.info("Получен список бронирований для владельца id={} по условию {} после курсора", userId, state);
+
+        return ownerBookings;
+    }
+
+    @Override
+    public long countBookingsForUser(Integer userId, String state) {
+        userService.getUserById(userId);
+        long count;
+        switch (state) {
+            case "ALL":
+                count = bookingRepository.countByBookerId(userId);
+                break;
+            case "CURRENT":
+                count = bookingRepository.countByBookerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(), LocalDateTime.now());
+                break;
+            case "PAST":
+                count = bookingRepository.countByBookerIdAndEndBefore(userId, LocalDateTime.now());
+                break;
+            case "FUTURE":
+                count = bookingRepository.countByBookerIdAndStartAfter(userId, LocalDateTime.now());
+                break;
+            case "WAITING":
+            case "REJECTED":
+                count = bookingRepository.countByBookerIdAndStatus(userId, BookingStatus.valueOf(state));
+                break;
+            default:
+                log.warn("Некорректный статус бронирования");
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        log.info("Получено количество бронирований для пользователя id={} по условию {}", userId, state);
+
+        return count;
+    }
+
+    @Override
+    public long countBookingsForOwner(Integer userId, String state) {
+        userService.getUserById(userId);
+        long count;
+        switch (state) {
+            case "ALL":
+                count = bookingRepository.countBookingsForOwner(userId);
+                break;
+            case "CURRENT":
+                count = bookingRepository.countBookingsForOwnerCurrent(userId, LocalDateTime.now());
+                break;
+            case "PAST":
+                count = bookingRepository.countBookingsForOwnerPast(userId, LocalDateTime.now());
+                break;
+            case "FUTURE":
+                count = bookingRepository.countBookingsForOwnerFuture(userId, LocalDateTime.now());
+                break;
+            case "WAITING":
+            case "REJECTED":
+                count = bookingRepository.countBookingsForOwnerByStatus(userId, BookingStatus.valueOf(state));
+                break;
+            default:
+                log.warn("Некорректный статус бронирования");
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        log.info("Получено количество бронирований для владельца id={} по условию {}", userId, state);
+
+        return count;
     }
 
     private Booking checkBookingForExist(Integer bookingId) {
-        return bookingRepository.findById(bookingId)
+        return bookingRepository.findDetailedById(bookingId)
                 .orElseThrow(() -> {
                     log.warn("Бронирование не найдено");
                     throw new NotFoundException("Такое бронирование не найдено");
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.AvailabilityPeriod;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityCalendar {
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final Map<Integer, DayCalendar> calendars = new ConcurrentHashMap<>();
+
+    public void occupy(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        DayCalendar calendar = getCalendar(itemId);
+        synchronized (calendar) {
+            calendar.occupy(start, end);
+        }
+        TransactionHooks.afterRollback(() -> refresh(itemId, start, end));
+    }
+
+    public void release(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        TransactionHooks.afterCommit(() -> refresh(itemId, start, end));
+    }
+
+    public List<AvailabilityPeriod> getFreePeriods(Integer itemId, LocalDate from, LocalDate to) {
+        DayCalendar calendar = getCalendar(itemId);
+        synchronized (calendar) {
+            return calendar.getFreePeriods(from, to);
+        }
+    }
+
+    // после отклонения или отката день свободен, только если в нём не осталось других бронирований
+    private void refresh(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        DayCalendar calendar = calendars.get(itemId);
+        if (calendar == null) {
+            return;
+        }
+        synchronized (calendar) {
+            for (LocalDate day = calendar.firstDay(start); !day.isAfter(lastDay(end)); day = day.plusDays(1)) {
+                boolean free = bookingIntervalIndex.isFree(itemId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                calendar.days.set(calendar.index(day), !free);
+            }
+        }
+    }
+
+    // запрос к базе идёт вне карты, как в BookingIntervalIndex; при гонке двух загрузок остаётся первый календарь
+    private DayCalendar getCalendar(Integer itemId) {
+        DayCalendar calendar = calendars.get(itemId);
+        if (calendar == null) {
+            DayCalendar loaded = load(itemId);
+            calendar = calendars.putIfAbsent(itemId, loaded);
+            if (calendar == null) {
+                calendar = loaded;
+            }
+        }
+        return calendar;
+    }
+
+    private DayCalendar load(Integer itemId) {
+        DayCalendar calendar = new DayCalendar(LocalDate.now());
+        List<BookingItemDto> bookings = bookingRepository.findActiveBookingsForItem(itemId, LocalDateTime.now());
+        for (BookingItemDto booking : bookings) {
+            calendar.occupy(booking.getStart(), booking.getEnd());
+        }
+        log.info("Построен календарь вещи id={} по {} бронированиям", itemId, bookings.size());
+        return calendar;
+    }
+
+    private static LocalDate lastDay(LocalDateTime end) {
+        return end.toLocalTime().equals(LocalTime.MIDNIGHT) ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+    }
+
+    private static class DayCalendar {
+        private final LocalDate base;
+        private final BitSet days = new BitSet();
+
+        private DayCalendar(LocalDate base) {
+            this.base = base;
+        }
+
+        private int index(LocalDate day) {
+            return (int) ChronoUnit.DAYS.between(base, day);
+        }
+
+        private LocalDate firstDay(LocalDateTime start) {
+            LocalDate day = start.toLocalDate();
+            return day.isBefore(base) ? base : day;
+        }
+
+        private void occupy(LocalDateTime start, LocalDateTime end) {
+            int from = index(firstDay(start));
+            int to = index(lastDay(end));
+            if (from <= to) {
+                days.set(from, to + 1);
+            }
+        }
+
+        private List<AvailabilityPeriod> getFreePeriods(LocalDate from, LocalDate to) {
+            List<AvailabilityPeriod> periods = new ArrayList<>();
+            int last = index(to);
+            int free = days.nextClearBit(Math.max(index(from), 0));
+            while (free <= last) {
+                int busy = days.nextSetBit(free);
+                int end = busy < 0 || busy > last ? last : busy - 1;
+                periods.add(new AvailabilityPeriod(base.plusDays(free), base.plusDays(end)));
+                if (busy < 0 || busy > last) {
+                    break;
+                }
+                free = days.nextClearBit(busy);
+            }
+            return periods;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// по каждому дню — множество вещей, у которых в этот день есть хотя бы одно бронирование
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemOccupancyIndex {
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    // отмены, пришедшие во время загрузки: снимок мог прочитать бронь до отмены, они повторяются после установки
+    private final List<Runnable> releasedWhileLoading = new ArrayList<>();
+    private NavigableMap<Long, BitSet> busyItemsByDay = new TreeMap<>();
+    private long today;
+    private int loading;
+    private volatile boolean loaded;
+
+    public void occupy(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        synchronized (this) {
+            pruneDaysBefore(currentDay());
+            mark(busyItemsByDay, today, itemId, start, end);
+        }
+        TransactionHooks.afterRollback(() -> refresh(itemId, start, end));
+    }
+
+    public void release(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        TransactionHooks.afterCommit(() -> refresh(itemId, start, end));
+    }
+
+    public BitSet findBusyItems(LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        synchronized (this) {
+            pruneDaysBefore(currentDay());
+            BitSet busy = new BitSet();
+            for (BitSet items : busyItemsByDay.subMap(firstDay(start), true, lastDay(end), true).values()) {
+                busy.or(items);
+            }
+            return busy;
+        }
+    }
+
+    private synchronized void refresh(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        if (!loaded) {
+            if (loading > 0) {
+                releasedWhileLoading.add(() -> refresh(itemId, start, end));
+            }
+            return;
+        }
+        pruneDaysBefore(currentDay());
+        for (long day = Math.max(today, firstDay(start)); day <= lastDay(end); day++) {
+            LocalDateTime dayStart = LocalDate.ofEpochDay(day).atStartOfDay();
+            if (bookingIntervalIndex.isFree(itemId, dayStart, dayStart.plusDays(1))) {
+                BitSet items = busyItemsByDay.get(day);
+                if (items != null) {
+                    items.clear(itemId);
+                }
+            } else {
+                busyItemsByDay.computeIfAbsent(day, key -> new BitSet()).set(itemId);
+            }
+        }
+    }
+
+    // запрос всех активных броней идёт вне монитора, как в BookingIntervalIndex: поиск и бронирование не ждут его,
+    // при гонке двух загрузок остаётся первая
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            loading++;
+        }
+        NavigableMap<Long, BitSet> fresh = new TreeMap<>();
+        long day = currentDay();
+        List<BookingItemDto> bookings;
+        try {
+            bookings = bookingRepository.findAllActiveBookings(LocalDateTime.now());
+            for (BookingItemDto booking : bookings) {
+                mark(fresh, day, booking.getItemId(), booking.getStart(), booking.getEnd());
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                finishLoading();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                busyItemsByDay = fresh;
+                today = day;
+                pruneDaysBefore(currentDay());
+                loaded = true;
+                releasedWhileLoading.forEach(Runnable::run);
+                releasedWhileLoading.clear();
+                log.info("Загружена занятость вещей по {} активным бронированиям", bookings.size());
+            }
+            finishLoading();
+        }
+    }
+
+    private void finishLoading() {
+        if (--loading == 0) {
+            releasedWhileLoading.clear();
+        }
+    }
+
+    // в индексе только активные брони, а новые начинаются не раньше текущего момента: прошедшие дни не нужны
+    // ни одному запросу, и без чистки их множества копились бы бесконечно
+    private void pruneDaysBefore(long day) {
+        if (day > today) {
+            busyItemsByDay.headMap(day, false).clear();
+            today = day;
+        }
+    }
+
+    private static void mark(NavigableMap<Long, BitSet> days, long from, Integer itemId, LocalDateTime start,
+                             LocalDateTime end) {
+        for (long day = Math.max(from, firstDay(start)); day <= lastDay(end); day++) {
+            days.computeIfAbsent(day, key -> new BitSet()).set(itemId);
+        }
+    }
+
+    private static long currentDay() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    private static long firstDay(LocalDateTime start) {
+        return start.toLocalDate().toEpochDay();
+    }
+
+    private static long lastDay(LocalDateTime end) {
+        LocalDate day = end.toLocalTime().equals(LocalTime.MIDNIGHT) ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+        return day.toEpochDay();
+    }
+}
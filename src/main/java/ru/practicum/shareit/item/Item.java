@@ -7,6 +7,7 @@ import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 
@@ -17,6 +18,7 @@ import java.util.Objects;
 @AllArgsConstructor
 @RequiredArgsConstructor
 @Table(name = "items")
+@NamedEntityGraph(name = "Item.owner", attributeNodes = @NamedAttributeNode("owner"))    // проверка владельца
 public class Item {
 
     @Id
@@ -31,7 +33,7 @@ public class Item {
     private String description;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "owner_id", nullable = false)
+    @JoinColumn(name = "owner_id", nullable = false, updatable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     @ToString.Exclude
     private User owner;
@@ -45,6 +47,10 @@ public class Item {
     @ToString.Exclude
     private ItemRequest request;
 
+    // по времени изменения снимок поискового индекса догружает изменения после запуска
+    @Column(name = "updated", nullable = false)
+    private LocalDateTime updated;
+
     public Item(Integer id, String name, String description, Boolean isAvailable, ItemRequest request) {
         this.id = id;
         this.name = name;
@@ -68,6 +74,12 @@ public class Item {
         this.isAvailable = isAvailable;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updated = LocalDateTime.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,23 +1,61 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Integer> {
 
-    Page<Item> findAllByOwnerId(Integer ownerId, Pageable page);
+    @EntityGraph("Item.owner")
+    Optional<Item> findWithOwnerById(Integer itemId);                                                            // owner check
+
+    Slice<Item> findAllByOwnerId(Integer ownerId, Pageable page);
+
+    @Query("SELECT it " +
+            "FROM Item it " +
+            "WHERE UPPER(it.name) LIKE UPPER(CONCAT('%', ?1, '%')) OR UPPER(it.description) LIKE UPPER(CONCAT('%', ?1, '%')) AND it.isAvailable = true " +
+            "ORDER BY it.id")
+    Slice<Item> findAllByTextContaining(String text, Pageable pageable);
 
     @Query("SELECT it " +
             "FROM Item it " +
-            "WHERE UPPER(it.name) LIKE UPPER(CONCAT('%', ?1, '%')) OR UPPER(it.description) LIKE UPPER(CONCAT('%', ?1, '%')) AND it.isAvailable = true")
-    Page<Item> findAllByTextContaining(String text, Pageable pageable);
+            "WHERE it.id > ?2 AND (UPPER(it.name) LIKE UPPER(CONCAT('%', ?1, '%')) OR UPPER(it.description) LIKE UPPER(CONCAT('%', ?1, '%')) AND it.isAvailable = true) " +
+            "ORDER BY it.id")
+    Slice<Item> findAllByTextContainingAfter(String text, Integer id, Pageable pageable);                      // keyset chunks
+
+    @Query(value = "SELECT it.* " +
+            "FROM FT_SEARCH_DATA(?1, 0, 0) ft " +
+            "JOIN items it ON it.id = CAST(ft.KEYS[1] AS BIGINT) " +
+            "WHERE ft.\"TABLE\" = 'ITEMS' AND it.is_available = TRUE " +
+            "ORDER BY it.id", nativeQuery = true)
+    Slice<Item> findAllByFullText(String text, Pageable pageable);                                                 // H2 FullText
+
+    @Query(value = "SELECT it.* " +
+            "FROM FT_SEARCH_DATA(?1, 0, 0) ft " +
+            "JOIN items it ON it.id = CAST(ft.KEYS[1] AS BIGINT) " +
+            "WHERE ft.\"TABLE\" = 'ITEMS' AND it.is_available = TRUE AND it.id > ?2 " +
+            "ORDER BY it.id", nativeQuery = true)
+    Slice<Item> findAllByFullTextAfter(String text, Integer id, Pageable pageable);                                // H2 FullText, keyset chunks
+
+    Slice<Item> findAllByIdGreaterThanOrderByIdAsc(Integer id, Pageable page);
+
+    @Query("SELECT it " +
+            "FROM Item it " +
+            "WHERE it.updated >= ?1 AND it.id > ?2 " +
+            "ORDER BY it.id")
+    Slice<Item> findAllUpdatedSince(LocalDateTime updated, Integer id, Pageable page);                         // search index snapshot catch-up
 
     List<Item> findAllByRequestId(Integer requestId);
 
+    List<Item> findAllByRequestIdIn(Collection<Integer> requestIds);
+
 }
@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.CommentDto;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -17,8 +19,16 @@ public interface ItemService {
 
     List<ItemDtoBooking> getItemsByOwner(Integer userId, int from, int size);
 
-    List<ItemDto> searchItemByText(String text, int from, int size);
+    default List<ItemDto> searchItemByText(String text, int from, int size) {
+        return searchItemByText(text, null, null, "PLAIN", from, size);
+    }
+
+    List<ItemDto> searchItemByText(String text, LocalDateTime start, LocalDateTime end, String mode, int from, int size);
+
+    List<String> suggestItemNames(String prefix, int size);
 
     CommentDto addComment(Integer userId, Integer itemId, CommentDto commentDto);
 
+    ItemAvailabilityDto getItemAvailability(Integer itemId, LocalDate from, LocalDate to);
+
 }
@@ -2,6 +2,9 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.*;
@@ -11,15 +14,28 @@ import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemDocument;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.utility.PageDefinition;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,12 +44,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int SEARCH_OVERFETCH = 2;
+
     private final UserService userService;
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+    private final ItemOccupancyIndex itemOccupancyIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchProperties itemSearchProperties;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSuggestIndex itemSuggestIndex;
 
     @Override
     public ItemDto addItem(Integer userId, ItemDto itemDto) {
@@ -49,6 +74,9 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequestRepository.getReferenceById(itemDto.getRequestId()));
         }
         Item newItem = itemRepository.save(item);
+        itemSearchIndex.add(ItemDocument.of(newItem));
+        itemSearchCache.invalidate(null, ItemDocument.of(newItem));
+        itemSuggestIndex.add(ItemDocument.of(newItem));
         log.info("Создана вещь id={}", newItem.getId());
 
         return ItemMapper.toItemDto(newItem);
@@ -64,6 +92,7 @@ public class ItemServiceImpl implements ItemService {
             log.warn("Объект принадлежит другому пользователю");
             throw new NotFoundException("Объект принадлежит другому пользователю");
         }
+        ItemDocument previous = ItemDocument.of(existedItem);
         if (itemDto.getName() != null) {
             existedItem.setName(itemDto.getName());
         }
@@ -77,6 +106,9 @@ public class ItemServiceImpl implements ItemService {
             existedItem.setRequest(itemRequestRepository.getReferenceById(itemDto.getRequestId()));
         }
         Item updItem = itemRepository.save(existedItem);
+        itemSearchIndex.update(previous, ItemDocument.of(updItem));
+        itemSearchCache.invalidate(previous, ItemDocument.of(updItem));
+        itemSuggestIndex.update(previous, ItemDocument.of(updItem));
         log.info("Обновлена вещь id={}", itemId);
 
         return ItemMapper.toItemDto(updItem);
@@ -84,11 +116,16 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDtoBooking getItemDtoBookingById(Integer itemId, Integer userId) {
-        Item item = getItemById(itemId);
+        // для карточки владелец нужен только по id, он есть в самой строке вещи
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> {
+                    log.warn("Объект не найден");
+                    return new NotFoundException("Такой объект не найден");
+                });
         ItemDtoBooking itemDtoBooking = setCommentsToItem(item);
         log.info("Вызвана вещь id={}", itemId);
         if (userId.equals(item.getOwner().getId())) {
-            return setBookingsToItem(itemDtoBooking);
+            setBookingsToItem(itemDtoBooking);
         }
         return itemDtoBooking;
     }
@@ -97,7 +134,7 @@ public class ItemServiceImpl implements ItemService {
     public Item getItemById(Integer itemId) {
         log.info("Вызвана вещь id={}", itemId);
 
-        return itemRepository.findById(itemId)
+        return itemRepository.findWithOwnerById(itemId)
                 .orElseThrow(() -> {
                     log.warn("Объект не найден");
                     return new NotFoundException("Такой объект не найден");
@@ -108,10 +145,14 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDtoBooking> getItemsByOwner(Integer userId, int from, int size) {
         log.info("Вызван список вещей для пользователя id ={}", userId);
 
-        return itemRepository.findAllByOwnerId(userId, PageDefinition.definePage(from, size))
+        List<ItemDtoBooking> items = itemRepository.findAllByOwnerId(userId, PageDefinition.definePage(from, size))
                 .stream()
-                .map(this::setCommentsToItem)
-                .map(this::setBookingsToItem)
+                .map(ItemMapper::toItemDtoBooking)
+                .collect(Collectors.toList());
+        setCommentsToItems(items);
+        setBookingsToItems(items);
+
+        return items.stream()
                 .sorted(Comparator.comparing(item -> {
                     if (item.getNextBooking() == null) {
                         return LocalDateTime.MIN;
@@ -121,24 +162,30 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
-    private ItemDtoBooking setBookingsToItem(ItemDtoBooking itemDtoBooking) {
-        List<Booking> lastBooking = bookingRepository.findLastBookingForItem(itemDtoBooking.getId(), LocalDateTime.now())
-                .stream()
-                .filter(book -> book.getStatus() != BookingStatus.REJECTED)
-                .collect(Collectors.toList());
-        if (!lastBooking.isEmpty()) {
-            BookingItemDto lastBookingItemDto = BookingMapper.toBookingItemDto(lastBooking.get(0));
-            itemDtoBooking.setLastBooking(lastBookingItemDto);
+    // одна вещь: два запроса с LIMIT 1 по idx_bookings_item_start вместо ранжирования всей истории её броней
+    private void setBookingsToItem(ItemDtoBooking itemDtoBooking) {
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.findLastBookingForItem(itemDtoBooking.getId(), now)
+                .ifPresent(itemDtoBooking::setLastBooking);
+        bookingRepository.findNextBookingForItem(itemDtoBooking.getId(), now)
+                .ifPresent(itemDtoBooking::setNextBooking);
+    }
+
+    private void setBookingsToItems(List<ItemDtoBooking> items) {
+        if (items.isEmpty()) {
+            return;
         }
-        List<Booking> nextBooking = bookingRepository.findNextBookingForItem(itemDtoBooking.getId(), LocalDateTime.now())
-                .stream()
-                .filter(book -> book.getStatus() != BookingStatus.REJECTED)
-                .collect(Collectors.toList());
-        if (!nextBooking.isEmpty()) {
-            BookingItemDto nextBookingItemDto = BookingMapper.toBookingItemDto(nextBooking.get(0));
-            itemDtoBooking.setNextBooking(nextBookingItemDto);
+        Map<Integer, ItemDtoBooking> itemsById = items.stream()
+                .collect(Collectors.toMap(ItemDtoBooking::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingItemDto booking : bookingRepository.findLastAndNextBookingsForItems(itemsById.keySet(), now)) {
+            ItemDtoBooking itemDtoBooking = itemsById.get(booking.getItemId());
+            if (booking.getStart().isBefore(now)) {
+                itemDtoBooking.setLastBooking(booking);
+            } else {
+                itemDtoBooking.setNextBooking(booking);
+            }
         }
-        return itemDtoBooking;
     }
 
     private ItemDtoBooking setCommentsToItem(Item item) {
@@ -152,18 +199,81 @@ public class ItemServiceImpl implements ItemService {
         return itemDtoBooking;
     }
 
+    private void setCommentsToItems(List<ItemDtoBooking> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<CommentDto>> commentsByItem = commentRepository.findAllByItemIdIn(
+                        items.stream().map(ItemDtoBooking::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        items.forEach(item -> item.setComments(commentsByItem.getOrDefault(item.getId(), new ArrayList<>())));
+    }
+
     @Override
-    public List<ItemDto> searchItemByText(String text, int from, int size) {
+    public List<ItemDto> searchItemByText(String text, LocalDateTime start, LocalDateTime end, String mode,
+                                          int from, int size) {
+        ItemSearchMode searchMode;
+        try {
+            searchMode = ItemSearchMode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            log.warn("Неизвестный режим поиска {}", mode);
+            throw new ValidationException("Unknown mode: " + mode);
+        }
         if (text.isEmpty() || text.isBlank()) {
             log.warn("Вызван поиск вещей для пустой строки");
             return new ArrayList<>();
         }
         log.info("Вызван список вещей по строке поиска \"{}\"", text);
+        boolean withPeriod = start != null || end != null;
+        if (withPeriod && (start == null || end == null || !start.isBefore(end))) {
+            log.warn("Некорректный период поиска");
+            throw new ValidationException("Некорректный период поиска");
+        }
+        // результаты с периодом зависят от бронирований и не кэшируются
+        if (!withPeriod && (itemSearchProperties.getBackend() != ItemSearchBackend.INDEX || itemSearchIndex.isBuilt())) {
+            return itemSearchCache.get(itemSearchCache.key(text, searchMode, from, size),
+                    () -> searchItems(text, null, null, searchMode, from, size));
+        }
 
-        return itemRepository.findAllByTextContaining(text.toLowerCase(), PageDefinition.definePage(from, size))
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return searchItems(text, start, end, searchMode, from, size);
+    }
+
+    private List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, ItemSearchMode searchMode,
+                                      int from, int size) {
+        boolean withPeriod = start != null;
+        int offset = (int) PageDefinition.definePage(from, size).getOffset();
+        if (itemSearchIndex.isBuilt()) {
+            if (searchMode == ItemSearchMode.RANKED) {
+                return loadRankedItems(itemSearchIndex.searchRanked(text, offset + size, freeItems(start, end)), offset);
+            }
+            if (searchMode == ItemSearchMode.FUZZY) {
+                return loadRankedItems(itemSearchIndex.searchFuzzy(text, offset + size, freeItems(start, end)), offset);
+            }
+            return searchIndexedItems(text, start, end, offset, size);
+        }
+        if (searchMode != ItemSearchMode.PLAIN) {
+            log.warn("Поисковый индекс не построен, режим {} заменён обычным поиском", searchMode);
+        }
+        if (!withPeriod) {
+            return findByText(text.toLowerCase(), PageDefinition.definePage(from, size))
+                    .stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+
+        return searchFreeItems(text.toLowerCase(), start, end, offset, size);
+    }
+
+    @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        log.info("Вызваны подсказки названий вещей по префиксу \"{}\"", prefix);
+
+        return itemSuggestIndex.suggest(prefix, size);
     }
 
     @Override
@@ -190,4 +300,104 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Integer itemId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            log.warn("Конец периода раньше начала");
+            throw new ValidationException("Конец периода раньше начала");
+        }
+        getItemById(itemId);
+
+        return new ItemAvailabilityDto(itemId, from, to, itemAvailabilityCalendar.getFreePeriods(itemId, from, to));
+    }
+
+    private List<ItemDto> searchIndexedItems(String text, LocalDateTime start, LocalDateTime end, int offset, int size) {
+        BitSet matches = itemSearchIndex.search(text);
+        IntPredicate free = freeItems(start, end);
+        List<Integer> ids = new ArrayList<>();
+        int skipped = 0;
+        for (int id = matches.nextSetBit(0); id >= 0 && ids.size() < size; id = matches.nextSetBit(id + 1)) {
+            if (!free.test(id)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            ids.add(id);
+        }
+
+        return itemRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    // из индекса берутся лучшие offset + size вещей, порядок ранжирования сохраняется при загрузке
+    private List<ItemDto> loadRankedItems(List<Integer> ranked, int offset) {
+        if (ranked.size() <= offset) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = ranked.subList(offset, ranked.size());
+        Map<Integer, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private IntPredicate freeItems(LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return id -> true;
+        }
+        BitSet busyItems = itemOccupancyIndex.findBusyItems(start, end);
+        return id -> !busyItems.get(id) || bookingIntervalIndex.isFree(id, start, end);
+    }
+
+    // вещи перебираются порциями по возрастанию id, пока после отсева занятых не наберётся size результатов;
+    // первая порция сразу покрывает смещение, следующие берутся по ключу от последнего id
+    private List<ItemDto> searchFreeItems(String text, LocalDateTime start, LocalDateTime end, int offset, int size) {
+        BitSet busyItems = itemOccupancyIndex.findBusyItems(start, end);
+        PageRequest chunk = PageRequest.of(0, offset + size * SEARCH_OVERFETCH);
+        List<ItemDto> items = new ArrayList<>();
+        int skipped = 0;
+        int lastId = 0;
+        Slice<Item> slice;
+        do {
+            slice = findByTextAfter(text, lastId, chunk);
+            for (Item item : slice) {
+                lastId = item.getId();
+                if (busyItems.get(item.getId()) && !bookingIntervalIndex.isFree(item.getId(), start, end)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                items.add(ItemMapper.toItemDto(item));
+                if (items.size() == size) {
+                    return items;
+                }
+            }
+        } while (slice.hasNext());
+        return items;
+    }
+
+    private Slice<Item> findByText(String text, Pageable page) {
+        if (itemSearchProperties.getBackend() == ItemSearchBackend.H2_FULLTEXT) {
+            return itemRepository.findAllByFullText(text, page);
+        }
+        return itemRepository.findAllByTextContaining(text, page);
+    }
+
+    private Slice<Item> findByTextAfter(String text, Integer id, Pageable page) {
+        if (itemSearchProperties.getBackend() == ItemSearchBackend.H2_FULLTEXT) {
+            return itemRepository.findAllByFullTextAfter(text, id, page);
+        }
+        return itemRepository.findAllByTextContainingAfter(text, id, page);
+    }
+
 }
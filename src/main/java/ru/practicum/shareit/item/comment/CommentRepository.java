@@ -1,13 +1,25 @@
 package ru.practicum.shareit.item.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
+    @Query("SELECT cm " +
+            "FROM Comment cm " +
+            "JOIN FETCH cm.author " +
+            "WHERE cm.item.id = ?1")
     List<Comment> findAllByItemId(Integer itemId);
 
+    @Query("SELECT cm " +
+            "FROM Comment cm " +
+            "JOIN FETCH cm.author " +
+            "WHERE cm.item.id IN ?1")
+    List<Comment> findAllByItemIdIn(Collection<Integer> itemIds);
+
 }
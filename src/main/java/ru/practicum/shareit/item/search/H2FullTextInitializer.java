@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// FT_CREATE_INDEX индексирует существующие строки и вешает на items триггеры, которые поддерживают индекс дальше
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "h2-fulltext")
+public class H2FullTextInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+        jdbcTemplate.execute("CALL FT_INIT()");
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE SCHEMA = 'PUBLIC' AND \"TABLE\" = 'ITEMS'", Integer.class);
+        if (indexes == null || indexes == 0) {
+            jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', 'ITEMS', 'NAME,DESCRIPTION')");
+            log.info("Создан полнотекстовый индекс H2 по вещам");
+        }
+    }
+}
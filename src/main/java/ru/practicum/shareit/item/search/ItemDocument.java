@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.item.Item;
+
+@Data
+@AllArgsConstructor
+public class ItemDocument {
+
+    private int id;
+    private String name;
+    private String description;
+    private boolean available;
+
+    public static ItemDocument of(Item item) {
+        return new ItemDocument(item.getId(), item.getName(), item.getDescription(),
+                Boolean.TRUE.equals(item.getIsAvailable()));
+    }
+}
@@ -0,0 +1,255 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// сжатое префиксное дерево названий: ключ — название с каждого начала слова, ребро хранит не букву, а отрезок
+// нормализованного названия, поэтому узлов порядка числа ключей, а не их длины. В узле кэш лучших названий
+// поддерева, не потокобезопасно
+class ItemNameTrie {
+
+    private static final Comparator<Map.Entry<String, Integer>> MOST_FREQUENT = Map.Entry.<String, Integer>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int limit;
+    private final Node root = new Node("", 0, 0);
+
+    ItemNameTrie(int limit) {
+        this.limit = limit;
+    }
+
+    void add(String name) {
+        String normalized = normalize(name).strip();
+        for (int start : keyStarts(normalized)) {
+            update(normalized, start, name, 1);
+        }
+    }
+
+    void remove(String name) {
+        String normalized = normalize(name).strip();
+        for (int start : keyStarts(normalized)) {
+            update(normalized, start, name, -1);
+        }
+    }
+
+    List<String> suggest(String prefix, int size) {
+        String key = normalize(prefix).stripLeading();
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            node = node.child(key.charAt(position));
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            int matched = node.match(key, position);
+            if (matched < node.length() && position + matched < key.length()) {
+                return Collections.emptyList();
+            }
+            position += matched;
+        }
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : node.top()) {
+            if (names.size() == size) {
+                break;
+            }
+            names.add(entry.getKey());
+        }
+        return names;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static List<Integer> keyStarts(String normalized) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private void update(String text, int start, String name, int delta) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int position = start;
+        while (true) {
+            node.top = null;
+            path.add(node);
+            if (position == text.length()) {
+                break;
+            }
+            Node child = node.child(text.charAt(position));
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node(text, position, text.length());
+                node.putChild(child);
+                position = text.length();
+            } else {
+                int matched = child.match(text, position);
+                if (matched < child.length()) {
+                    if (delta < 0) {
+                        return;
+                    }
+                    child = child.split(matched);
+                    node.putChild(child);
+                }
+                position += matched;
+            }
+            node = child;
+        }
+        if (delta < 0 && (node.names == null || !node.names.containsKey(name))) {
+            return;
+        }
+        if (node.names == null) {
+            node.names = new HashMap<>(2);
+        }
+        node.names.merge(name, delta, (count, change) -> count + change > 0 ? count + change : null);
+        if (node.names.isEmpty()) {
+            node.names = null;
+        }
+        // опустевшие узлы удаляются, а узел без названий с единственным потомком сливается с ним
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.isEmpty()) {
+                parent.removeChild(current.first());
+            } else if (current.names == null && current.children.length == 1) {
+                parent.putChild(current.children[0].prepend(current));
+            }
+        }
+    }
+
+    private class Node {
+        // метка ребра от родителя — text[start, end)
+        private String text;
+        private int start;
+        private final int end;
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        // названия, ключ которых заканчивается в узле, и число доступных вещей с таким названием
+        private Map<String, Integer> names;
+        // лучшие limit названий поддерева, null — пересчитать при запросе
+        private List<Map.Entry<String, Integer>> top;
+
+        private Node(String text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int length() {
+            return end - start;
+        }
+
+        private char first() {
+            return text.charAt(start);
+        }
+
+        // сколько первых символов метки совпадает с key начиная с position
+        private int match(String key, int position) {
+            int matched = 0;
+            while (matched < length() && position + matched < key.length()
+                    && text.charAt(start + matched) == key.charAt(position + matched)) {
+                matched++;
+            }
+            return matched;
+        }
+
+        // делит ребро: возвращает новый узел с первыми length символами метки, этот узел становится его потомком
+        private Node split(int length) {
+            Node head = new Node(text, start, start + length);
+            start += length;
+            head.putChild(this);
+            return head;
+        }
+
+        // сливает узел-предка без названий с единственным потомком
+        private Node prepend(Node parent) {
+            String label = parent.text.substring(parent.start, parent.end) + text.substring(start, end);
+            Node merged = new Node(label, 0, label.length());
+            merged.labels = labels;
+            merged.children = children;
+            merged.names = names;
+            return merged;
+        }
+
+        private Node child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position >= 0 ? children[position] : null;
+        }
+
+        // добавляет потомка или заменяет потомка с той же первой буквой метки
+        private void putChild(Node child) {
+            char label = child.first();
+            int position = Arrays.binarySearch(labels, label);
+            if (position >= 0) {
+                children[position] = child;
+                return;
+            }
+            position = -position - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newLabels[position] = label;
+            newChildren[position] = child;
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void removeChild(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            char[] newLabels = labels.length == 1 ? NO_LABELS : new char[labels.length - 1];
+            Node[] newChildren = children.length == 1 ? NO_CHILDREN : new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(labels, position + 1, newLabels, position, labels.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return children.length == 0 && names == null;
+        }
+
+        private List<Map.Entry<String, Integer>> top() {
+            if (top != null) {
+                return top;
+            }
+            // одно название может попасть в поддерево по нескольким словам, берётся максимум
+            Map<String, Integer> candidates = new HashMap<>();
+            if (names != null) {
+                candidates.putAll(names);
+            }
+            for (Node child : children) {
+                for (Map.Entry<String, Integer> entry : child.top()) {
+                    candidates.merge(entry.getKey(), entry.getValue(), Math::max);
+                }
+            }
+            List<Map.Entry<String, Integer>> sorted = new ArrayList<>(candidates.entrySet());
+            sorted.sort(MOST_FREQUENT);
+            top = new ArrayList<>(sorted.subList(0, Math.min(limit, sorted.size())));
+            return top;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.search;
+
+public enum ItemSearchBackend {
+    INDEX,
+    LIKE,
+    H2_FULLTEXT
+}
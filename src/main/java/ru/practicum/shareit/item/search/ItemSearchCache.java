@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+// кэш страниц поиска без периода; при изменении вещи сбрасываются только запросы, токены которых пересекаются с её токенами
+@Slf4j
+@Component
+public class ItemSearchCache {
+
+    private final ItemSearchProperties itemSearchProperties;
+    private final Cache<ItemSearchKey, List<ItemDto>> cache;
+    // увеличивается при каждом сбросе, чтобы не сохранить результат поиска, начатого до изменения вещи
+    private long generation;
+
+    public ItemSearchCache(ItemSearchProperties itemSearchProperties, MeterRegistry meterRegistry) {
+        this.itemSearchProperties = itemSearchProperties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(itemSearchProperties.getCache().getMaxWeight())
+                .weigher((ItemSearchKey key, List<ItemDto> items) -> items.size() + 1)
+                .expireAfterWrite(itemSearchProperties.getCache().getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+    public ItemSearchKey key(String text, ItemSearchMode mode, int from, int size) {
+        String normalized = isTokenized()
+                ? String.join(" ", new TreeSet<>(ItemTokenizer.tokenize(text)))
+                : text.toLowerCase();
+        return new ItemSearchKey(normalized, mode, from, size);
+    }
+
+    public List<ItemDto> get(ItemSearchKey key, Supplier<List<ItemDto>> search) {
+        List<ItemDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long observed;
+        synchronized (this) {
+            observed = generation;
+        }
+        List<ItemDto> items = List.copyOf(search.get());
+        synchronized (this) {
+            if (generation == observed) {
+                cache.put(key, items);
+            }
+        }
+        return items;
+    }
+
+    // сброс сразу, чтобы не отдавать устаревшие страницы, и повторно после завершения транзакции
+    public void invalidate(ItemDocument previous, ItemDocument updated) {
+        evict(previous, updated);
+        TransactionHooks.afterCommit(() -> evict(previous, updated));
+        TransactionHooks.afterRollback(() -> evict(previous, updated));
+    }
+
+    private synchronized void evict(ItemDocument previous, ItemDocument updated) {
+        generation++;
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(key -> affects(key, previous) || affects(key, updated));
+        log.debug("Из кэша поиска удалено запросов: {}", before - cache.asMap().size());
+    }
+
+    private boolean affects(ItemSearchKey key, ItemDocument document) {
+        if (document == null) {
+            return false;
+        }
+        if (!isTokenized()) {
+            return contains(document.getName(), key.getText()) || contains(document.getDescription(), key.getText());
+        }
+        Set<String> tokens = ItemTokenizer.tokenize(document.getName(), document.getDescription());
+        double threshold = itemSearchProperties.getFuzzy().getThreshold();
+        for (String queryToken : key.getText().split(" ")) {
+            for (String token : tokens) {
+                if (token.startsWith(queryToken) || key.getMode() == ItemSearchMode.FUZZY
+                        && ItemTrigrams.similarity(queryToken, token) >= threshold) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isTokenized() {
+        return itemSearchProperties.getBackend() == ItemSearchBackend.INDEX;
+    }
+
+    private static boolean contains(String text, String query) {
+        return text != null && text.toLowerCase().contains(query);
+    }
+}
@@ -0,0 +1,608 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+// каждый токен запроса ищется как префикс токенов названия и описания, результат — пересечение по всем токенам
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final int BUILD_BATCH = 10_000;
+    // параметры BM25F: совпадение в названии весит втрое больше совпадения в описании
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final Comparator<ScoredItem> WORST_FIRST = Comparator.comparingDouble(ScoredItem::getScore)
+            .thenComparing(ScoredItem::getId, Comparator.reverseOrder());
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties itemSearchProperties;
+    // изменения индекса, транзакции которых ещё не завершены
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    // изменения, сделанные до готовности индекса: новые структуры видят только закоммиченные вещи,
+    // поэтому при подмене эти вещи переиндексируются по последней версии (нет версии - вещь откатили)
+    private final BitSet changedBeforeBuild = new BitSet();
+    private final Map<Integer, ItemDocument> changedDocuments = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexData data = new IndexData();
+    private volatile boolean built;
+
+    // структуры строятся без блокировки: add/update вызываются из транзакций с занятым соединением пула и не должны
+    // ждать всего сканирования, под блокировкой только подмена и переиндексация изменённых за это время вещей
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (itemSearchProperties.getBackend() != ItemSearchBackend.INDEX) {
+            return;
+        }
+        Path snapshot = snapshotPath();
+        IndexData fresh = snapshot != null && Files.exists(snapshot) ? loadSnapshot(snapshot) : null;
+        if (fresh == null) {
+            fresh = scan();
+        }
+        lock.writeLock().lock();
+        try {
+            applyChangesBeforeBuild(fresh);
+            data = fresh;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // снимок не пишется, пока изменения индекса не завершены транзакцией: в нём не должно быть откатываемых вещей
+    @Scheduled(fixedDelayString = "${shareit.search.snapshot.interval:PT10M}",
+            initialDelayString = "${shareit.search.snapshot.interval:PT10M}")
+    public void writeSnapshot() {
+        Path snapshot = snapshotPath();
+        if (snapshot == null || !built) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (pendingChanges.get() > 0) {
+                log.debug("Снимок поискового индекса отложен: есть незавершённые изменения");
+                return;
+            }
+            LocalDateTime highWaterMark = LocalDateTime.now()
+                    .minus(itemSearchProperties.getSnapshot().getReplayOverlap());
+            data.toSnapshot(highWaterMark).write(snapshot);
+            log.info("Записан снимок поискового индекса {}: вещей {}, токенов {}", snapshot, data.documents,
+                    data.postings.size());
+        } catch (IOException e) {
+            log.warn("Не удалось записать снимок поискового индекса {}", snapshot, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    // при других бэкендах индекс не строится и не читается, поддерживать его незачем
+    public void add(ItemDocument document) {
+        if (itemSearchProperties.getBackend() != ItemSearchBackend.INDEX) {
+            return;
+        }
+        write(() -> {
+            pendingChanges.incrementAndGet();
+            data.put(document);
+            rememberBeforeBuild(document.getId(), document);
+        });
+        TransactionHooks.afterRollback(() -> write(() -> {
+            data.delete(document);
+            rememberBeforeBuild(document.getId(), null);
+        }));
+        TransactionHooks.afterCompletion(pendingChanges::decrementAndGet);
+    }
+
+    public void update(ItemDocument previous, ItemDocument updated) {
+        if (itemSearchProperties.getBackend() != ItemSearchBackend.INDEX) {
+            return;
+        }
+        write(() -> {
+            pendingChanges.incrementAndGet();
+            data.delete(previous);
+            data.put(updated);
+            rememberBeforeBuild(updated.getId(), updated);
+        });
+        TransactionHooks.afterRollback(() -> write(() -> {
+            data.delete(updated);
+            data.put(previous);
+            rememberBeforeBuild(previous.getId(), previous);
+        }));
+        TransactionHooks.afterCompletion(pendingChanges::decrementAndGet);
+    }
+
+    public BitSet search(String text) {
+        Set<String> tokens = ItemTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return new BitSet();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) data.available.clone();
+            for (String token : tokens) {
+                BitSet matches = new BitSet();
+                for (PostingList list : data.prefixed(token).values()) {
+                    list.addTo(matches);
+                }
+                result.and(matches);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // лучшие limit доступных вещей по BM25F среди совпадений search(text), прошедших фильтр, в порядке убывания
+    public List<Integer> searchRanked(String text, int limit, IntPredicate filter) {
+        Set<String> tokens = ItemTokenizer.tokenize(text);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        BitSet candidates = search(text);
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            if (!filter.test(id)) {
+                candidates.clear(id);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // оценки копятся по порядковому номеру кандидата, а не по id: массивы размером с выдачу, а не с таблицу
+        int[] ids = candidates.stream().toArray();
+        float[] scores = new float[ids.length];
+        int[] nameFrequencies = new int[ids.length];
+        int[] descriptionFrequencies = new int[ids.length];
+        lock.readLock().lock();
+        try {
+            IndexData data = this.data;
+            double averageNameLength = Math.max(1.0, (double) data.totalNameLength / Math.max(1, data.documents));
+            double averageDescriptionLength = Math.max(1.0,
+                    (double) data.totalDescriptionLength / Math.max(1, data.documents));
+            // все токены с префиксом токена запроса считаются одним термом: частоты суммируются, df — по объединению
+            for (String token : tokens) {
+                Arrays.fill(nameFrequencies, 0);
+                Arrays.fill(descriptionFrequencies, 0);
+                Collection<PostingList> lists = data.prefixed(token).values();
+                for (PostingList list : lists) {
+                    addFrequencies(list, ids, nameFrequencies, descriptionFrequencies);
+                }
+                int df = documentFrequency(lists);
+                double idf = Math.log(1 + (data.documents - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < ids.length; i++) {
+                    double frequency = NAME_WEIGHT * nameFrequencies[i]
+                            / (1 - B + B * data.nameLengths[ids[i]] / averageNameLength)
+                            + DESCRIPTION_WEIGHT * descriptionFrequencies[i]
+                            / (1 - B + B * data.descriptionLengths[ids[i]] / averageDescriptionLength);
+                    scores[i] += idf * frequency / (K1 + frequency);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> ordinals = top(IntStream.range(0, ids.length).iterator(), i -> scores[i], limit);
+        List<Integer> result = new ArrayList<>(ordinals.size());
+        for (int ordinal : ordinals) {
+            result.add(ids[ordinal]);
+        }
+        return result;
+    }
+
+    // оба списка отсортированы: идём по меньшему и ищем его id двоичным поиском в большем
+    private static void addFrequencies(PostingList list, int[] ids, int[] nameFrequencies,
+                                       int[] descriptionFrequencies) {
+        if (list.size() <= ids.length) {
+            for (int i = 0; i < list.size(); i++) {
+                int ordinal = Arrays.binarySearch(ids, list.id(i));
+                if (ordinal >= 0) {
+                    nameFrequencies[ordinal] += list.nameFrequency(i);
+                    descriptionFrequencies[ordinal] += list.descriptionFrequency(i);
+                }
+            }
+        } else {
+            for (int ordinal = 0; ordinal < ids.length; ordinal++) {
+                int i = list.indexOf(ids[ordinal]);
+                if (i >= 0) {
+                    nameFrequencies[ordinal] += list.nameFrequency(i);
+                    descriptionFrequencies[ordinal] += list.descriptionFrequency(i);
+                }
+            }
+        }
+    }
+
+    private static int documentFrequency(Collection<PostingList> lists) {
+        if (lists.size() == 1) {
+            return lists.iterator().next().size();
+        }
+        BitSet containing = new BitSet();
+        for (PostingList list : lists) {
+            list.addTo(containing);
+        }
+        return containing.cardinality();
+    }
+
+    // токены запроса сопоставляются с токенами словаря по сходству триграмм, кандидаты берутся только из
+    // триграммного индекса словаря; вещь должна содержать похожий токен на каждый токен запроса
+    public List<Integer> searchFuzzy(String text, int limit, IntPredicate filter) {
+        Set<String> tokens = ItemTokenizer.tokenize(text);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        double threshold = itemSearchProperties.getFuzzy().getThreshold();
+        Map<Integer, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            IndexData data = this.data;
+            List<Map<String, Float>> similarTokens = new ArrayList<>();
+            for (String token : tokens) {
+                similarTokens.add(data.findSimilarTokens(token, threshold));
+            }
+            // начинаем с самого редкого токена, чтобы следующие проверяли только уже найденные вещи
+            similarTokens.sort(Comparator.comparingLong(data::postingsSize));
+            for (Map<String, Float> similar : similarTokens) {
+                Map<Integer, Float> best = new HashMap<>();
+                for (Map.Entry<String, Float> entry : similar.entrySet()) {
+                    PostingList list = data.postings.get(entry.getKey());
+                    for (int i = 0; i < list.size(); i++) {
+                        int id = list.id(i);
+                        if (scores == null || scores.containsKey(id)) {
+                            best.merge(id, entry.getValue(), Math::max);
+                        }
+                    }
+                }
+                if (scores != null) {
+                    for (Map.Entry<Integer, Float> entry : best.entrySet()) {
+                        entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                    }
+                }
+                scores = best;
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            scores.keySet().removeIf(id -> !data.available.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+        scores.keySet().removeIf(id -> !filter.test(id));
+        Map<Integer, Float> matched = scores;
+        return top(matched.keySet().stream().mapToInt(Integer::intValue).iterator(), matched::get, limit);
+    }
+
+    // куча из limit лучших: на вершине худший из отобранных, полная сортировка совпадений не нужна
+    private static List<Integer> top(PrimitiveIterator.OfInt candidates, IntToDoubleFunction score, int limit) {
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(WORST_FIRST);
+        while (candidates.hasNext()) {
+            int id = candidates.nextInt();
+            ScoredItem item = new ScoredItem(id, (float) score.applyAsDouble(id));
+            if (top.size() < limit) {
+                top.add(item);
+            } else if (WORST_FIRST.compare(item, top.peek()) > 0) {
+                top.poll();
+                top.add(item);
+            }
+        }
+        List<Integer> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getId());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private IndexData scan() {
+        IndexData fresh = new IndexData();
+        int lastId = 0;
+        Slice<Item> slice;
+        do {
+            slice = itemRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BUILD_BATCH));
+            for (Item item : slice) {
+                fresh.put(ItemDocument.of(item));
+                lastId = item.getId();
+            }
+        } while (slice.hasNext());
+        log.info("Построен поисковый индекс: вещей {}, токенов {}", fresh.documents, fresh.postings.size());
+        return fresh;
+    }
+
+    // снимок отражает индекс на момент записи, вещи, изменённые после его отметки времени, догружаются из базы
+    private IndexData loadSnapshot(Path path) {
+        try {
+            ItemSearchSnapshot snapshot = ItemSearchSnapshot.read(path);
+            IndexData fresh = IndexData.of(snapshot);
+            int replayed = replay(fresh, snapshot.getHighWaterMark());
+            log.info("Поисковый индекс загружен из снимка {}: вещей {}, токенов {}, догружено изменений {}",
+                    path, fresh.documents, fresh.postings.size(), replayed);
+            return fresh;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Снимок поискового индекса {} не загружен, индекс строится заново", path, e);
+            return null;
+        }
+    }
+
+    private int replay(IndexData fresh, LocalDateTime since) {
+        List<ItemDocument> changed = new ArrayList<>();
+        BitSet changedIds = new BitSet();
+        int lastId = 0;
+        Slice<Item> slice;
+        do {
+            slice = itemRepository.findAllUpdatedSince(since, lastId, PageRequest.of(0, BUILD_BATCH));
+            for (Item item : slice) {
+                changed.add(ItemDocument.of(item));
+                changedIds.set(item.getId());
+                lastId = item.getId();
+            }
+        } while (slice.hasNext());
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        fresh.removeAll(changedIds);
+        changed.forEach(fresh::put);
+        return changed.size();
+    }
+
+    private void rememberBeforeBuild(int id, ItemDocument document) {
+        if (built) {
+            return;
+        }
+        changedBeforeBuild.set(id);
+        if (document == null) {
+            changedDocuments.remove(id);
+        } else {
+            changedDocuments.put(id, document);
+        }
+    }
+
+    private void applyChangesBeforeBuild(IndexData fresh) {
+        if (changedBeforeBuild.isEmpty()) {
+            return;
+        }
+        fresh.removeAll(changedBeforeBuild);
+        changedDocuments.values().forEach(fresh::put);
+        log.info("Переиндексировано вещей, изменённых во время построения индекса: {}",
+                changedBeforeBuild.cardinality());
+        changedBeforeBuild.clear();
+        changedDocuments.clear();
+    }
+
+    private Path snapshotPath() {
+        String path = itemSearchProperties.getSnapshot().getPath();
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ScoredItem {
+        private final int id;
+        private final float score;
+    }
+
+    // структуры индекса; build() собирает новый экземпляр без блокировки и подменяет им текущий
+    private static class IndexData {
+        private final NavigableMap<String, PostingList> postings;
+        private final Map<String, Set<String>> trigramTokens;
+        private final BitSet indexed;
+        private final BitSet available;
+        private int[] nameLengths;
+        private int[] descriptionLengths;
+        private long totalNameLength;
+        private long totalDescriptionLength;
+        private int documents;
+
+        private IndexData() {
+            this(new TreeMap<>(), new HashMap<>(), new BitSet(), new BitSet(), new int[1024], new int[1024], 0, 0, 0);
+        }
+
+        private IndexData(NavigableMap<String, PostingList> postings, Map<String, Set<String>> trigramTokens,
+                          BitSet indexed, BitSet available, int[] nameLengths, int[] descriptionLengths,
+                          long totalNameLength, long totalDescriptionLength, int documents) {
+            this.postings = postings;
+            this.trigramTokens = trigramTokens;
+            this.indexed = indexed;
+            this.available = available;
+            this.nameLengths = nameLengths;
+            this.descriptionLengths = descriptionLengths;
+            this.totalNameLength = totalNameLength;
+            this.totalDescriptionLength = totalDescriptionLength;
+            this.documents = documents;
+        }
+
+        private static IndexData of(ItemSearchSnapshot snapshot) {
+            return new IndexData(new TreeMap<>(snapshot.getPostings()), new HashMap<>(snapshot.getTrigramTokens()),
+                    snapshot.getIndexed(), snapshot.getAvailable(), snapshot.getNameLengths(),
+                    snapshot.getDescriptionLengths(), snapshot.getTotalNameLength(),
+                    snapshot.getTotalDescriptionLength(), snapshot.getDocuments());
+        }
+
+        private ItemSearchSnapshot toSnapshot(LocalDateTime highWaterMark) {
+            return new ItemSearchSnapshot(highWaterMark, documents, totalNameLength, totalDescriptionLength, indexed,
+                    available, nameLengths, descriptionLengths, postings, trigramTokens);
+        }
+
+        private NavigableMap<String, PostingList> prefixed(String token) {
+            return postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        }
+
+        private long postingsSize(Map<String, Float> similar) {
+            long size = 0;
+            for (String token : similar.keySet()) {
+                size += postings.get(token).size();
+            }
+            return size;
+        }
+
+        // сходство токенов словаря с токеном запроса; токены с ним как с префиксом считаются точным совпадением
+        private Map<String, Float> findSimilarTokens(String token, double threshold) {
+            Map<String, Float> similar = new HashMap<>();
+            Set<String> trigrams = ItemTrigrams.of(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : trigrams) {
+                for (String candidate : trigramTokens.getOrDefault(trigram, Collections.emptySet())) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                double similarity = ItemTrigrams.similarity(entry.getValue(), trigrams.size(),
+                        ItemTrigrams.of(entry.getKey()).size());
+                if (similarity >= threshold) {
+                    similar.put(entry.getKey(), (float) similarity);
+                }
+            }
+            for (String prefixed : prefixed(token).keySet()) {
+                similar.put(prefixed, 1f);
+            }
+            return similar;
+        }
+
+        private void put(ItemDocument document) {
+            int id = document.getId();
+            Map<String, Integer> nameCounts = ItemTokenizer.countTokens(document.getName());
+            Map<String, Integer> descriptionCounts = ItemTokenizer.countTokens(document.getDescription());
+            for (String token : ItemTokenizer.tokenize(document.getName(), document.getDescription())) {
+                PostingList list = postings.get(token);
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(token, list);
+                    addTrigrams(token);
+                }
+                list.add(id, nameCounts.getOrDefault(token, 0), descriptionCounts.getOrDefault(token, 0));
+            }
+            indexed.set(id);
+            available.set(id, document.isAvailable());
+            if (id >= nameLengths.length) {
+                int capacity = Math.max(id + 1, nameLengths.length * 2);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+                descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+            }
+            nameLengths[id] = length(nameCounts);
+            descriptionLengths[id] = length(descriptionCounts);
+            totalNameLength += nameLengths[id];
+            totalDescriptionLength += descriptionLengths[id];
+            documents++;
+        }
+
+        // вещь, которой нет в индексе, не должна сдвигать число документов и средние длины BM25F
+        private void delete(ItemDocument document) {
+            int id = document.getId();
+            if (!indexed.get(id)) {
+                return;
+            }
+            for (String token : ItemTokenizer.tokenize(document.getName(), document.getDescription())) {
+                PostingList list = postings.get(token);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.isEmpty()) {
+                        removeToken(token);
+                    }
+                }
+            }
+            forget(id);
+        }
+
+        // прежние токены вещей неизвестны, поэтому они удаляются из всех списков за один проход
+        private void removeAll(BitSet ids) {
+            List<String> emptied = new ArrayList<>();
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                entry.getValue().removeAll(ids);
+                if (entry.getValue().isEmpty()) {
+                    emptied.add(entry.getKey());
+                }
+            }
+            emptied.forEach(this::removeToken);
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                if (indexed.get(id)) {
+                    forget(id);
+                }
+            }
+        }
+
+        private void forget(int id) {
+            totalNameLength -= nameLengths[id];
+            totalDescriptionLength -= descriptionLengths[id];
+            nameLengths[id] = 0;
+            descriptionLengths[id] = 0;
+            documents--;
+            indexed.clear(id);
+            available.clear(id);
+        }
+
+        private void addTrigrams(String token) {
+            for (String trigram : ItemTrigrams.of(token)) {
+                trigramTokens.computeIfAbsent(trigram, key -> new HashSet<>()).add(token);
+            }
+        }
+
+        private void removeToken(String token) {
+            postings.remove(token);
+            for (String trigram : ItemTrigrams.of(token)) {
+                Set<String> tokens = trigramTokens.get(trigram);
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    trigramTokens.remove(trigram);
+                }
+            }
+        }
+
+        private static int length(Map<String, Integer> counts) {
+            int length = 0;
+            for (int count : counts.values()) {
+                length += count;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+@Value
+public class ItemSearchKey {
+
+    String text;
+    ItemSearchMode mode;
+    int from;
+    int size;
+
+}
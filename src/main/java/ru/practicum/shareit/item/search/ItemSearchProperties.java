@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class ItemSearchProperties {
+
+    private ItemSearchBackend backend = ItemSearchBackend.INDEX;
+    private Cache cache = new Cache();
+    private Fuzzy fuzzy = new Fuzzy();
+    private Snapshot snapshot = new Snapshot();
+
+    @Getter
+    @Setter
+    public static class Cache {
+        // суммарное число вещей во всех закэшированных страницах
+        private long maxWeight = 100_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Fuzzy {
+        // минимальное сходство триграмм токена запроса и токена вещи, от 0 до 1; сравниваются основы слов, они короче самих слов
+        private double threshold = 0.25;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+        // пустой путь отключает снимки
+        private String path = "";
+        private Duration interval = Duration.ofMinutes(10);
+        // запас назад от момента записи снимка для вещей, сохранённых до изменения индекса
+        private Duration replayOverlap = Duration.ofMinutes(1);
+    }
+}
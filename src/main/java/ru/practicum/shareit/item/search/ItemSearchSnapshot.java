@@ -0,0 +1,178 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// двоичный снимок структур поискового индекса: заголовок, битовые карты, длины полей, списки вхождений по токенам
+// и триграммный индекс словаря
+@Getter
+@AllArgsConstructor
+class ItemSearchSnapshot {
+
+    private static final int MAGIC = 0x53484958;
+    // менять при изменении формата или разбора текста в ItemTokenizer, старый снимок тогда перестраивается
+    private static final int VERSION = 2;
+
+    private final LocalDateTime highWaterMark;
+    private final int documents;
+    private final long totalNameLength;
+    private final long totalDescriptionLength;
+    private final BitSet indexed;
+    private final BitSet available;
+    private final int[] nameLengths;
+    private final int[] descriptionLengths;
+    private final NavigableMap<String, PostingList> postings;
+    private final Map<String, Set<String>> trigramTokens;
+
+    // запись во временный файл через отображение в память и атомарная замена прежнего снимка
+    void write(Path path) throws IOException {
+        long[] indexedWords = indexed.toLongArray();
+        long[] availableWords = available.toLongArray();
+        int lengths = indexed.length();
+        long size = 4 + 4 + 8 + 4 + 4 + 8 + 8
+                + 4 + 8L * indexedWords.length + 4 + 8L * availableWords.length + 4 + 8L * lengths + 4;
+        // токены в триграммном индексе записываются номерами в порядке списков вхождений
+        Map<String, Integer> ordinals = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            ordinals.put(entry.getKey(), ordinals.size());
+            size += 4 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 4 + 8L * entry.getValue().size();
+        }
+        size += 4;
+        for (Map.Entry<String, Set<String>> entry : trigramTokens.entrySet()) {
+            size += 4 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 4 + 4L * entry.getValue().size();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Снимок поискового индекса больше 2 ГБ");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(highWaterMark.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(highWaterMark.getNano());
+            buffer.putInt(documents);
+            buffer.putLong(totalNameLength);
+            buffer.putLong(totalDescriptionLength);
+            putWords(buffer, indexedWords);
+            putWords(buffer, availableWords);
+            buffer.putInt(lengths);
+            for (int id = 0; id < lengths; id++) {
+                buffer.putInt(nameLengths[id]);
+                buffer.putInt(descriptionLengths[id]);
+            }
+            buffer.putInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                byte[] token = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                PostingList list = entry.getValue();
+                buffer.putInt(token.length);
+                buffer.put(token);
+                buffer.putInt(list.size());
+                for (int i = 0; i < list.size(); i++) {
+                    buffer.putInt(list.id(i));
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    buffer.putInt(list.frequency(i));
+                }
+            }
+            buffer.putInt(trigramTokens.size());
+            for (Map.Entry<String, Set<String>> entry : trigramTokens.entrySet()) {
+                byte[] trigram = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(trigram.length);
+                buffer.put(trigram);
+                buffer.putInt(entry.getValue().size());
+                for (String token : entry.getValue()) {
+                    buffer.putInt(ordinals.get(token));
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static ItemSearchSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Неподдерживаемый формат снимка поискового индекса");
+            }
+            LocalDateTime highWaterMark = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            int documents = buffer.getInt();
+            long totalNameLength = buffer.getLong();
+            long totalDescriptionLength = buffer.getLong();
+            BitSet indexed = BitSet.valueOf(getWords(buffer));
+            BitSet available = BitSet.valueOf(getWords(buffer));
+            int lengths = buffer.getInt();
+            int[] nameLengths = new int[Math.max(lengths, 1024)];
+            int[] descriptionLengths = new int[nameLengths.length];
+            for (int id = 0; id < lengths; id++) {
+                nameLengths[id] = buffer.getInt();
+                descriptionLengths[id] = buffer.getInt();
+            }
+            NavigableMap<String, PostingList> postings = new TreeMap<>();
+            String[] tokens = new String[buffer.getInt()];
+            for (int t = 0; t < tokens.length; t++) {
+                tokens[t] = getString(buffer);
+                int[] ids = new int[buffer.getInt()];
+                int[] frequencies = new int[ids.length];
+                buffer.asIntBuffer().get(ids);
+                buffer.position(buffer.position() + 4 * ids.length);
+                buffer.asIntBuffer().get(frequencies);
+                buffer.position(buffer.position() + 4 * frequencies.length);
+                postings.put(tokens[t], new PostingList(ids, frequencies));
+            }
+            int trigrams = buffer.getInt();
+            Map<String, Set<String>> trigramTokens = new HashMap<>(trigrams * 2);
+            for (int t = 0; t < trigrams; t++) {
+                String trigram = getString(buffer);
+                int count = buffer.getInt();
+                Set<String> matching = new HashSet<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    matching.add(tokens[buffer.getInt()]);
+                }
+                trigramTokens.put(trigram, matching);
+            }
+            return new ItemSearchSnapshot(highWaterMark, documents, totalNameLength, totalDescriptionLength,
+                    indexed, available, nameLengths, descriptionLengths, postings, trigramTokens);
+        }
+    }
+
+    private static void putWords(MappedByteBuffer buffer, long[] words) {
+        buffer.putInt(words.length);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+    }
+
+    private static String getString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long[] getWords(MappedByteBuffer buffer) {
+        long[] words = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(words);
+        buffer.position(buffer.position() + 8 * words.length);
+        return words;
+    }
+}
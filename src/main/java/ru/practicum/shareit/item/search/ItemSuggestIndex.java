@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.utility.TransactionHooks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// подсказки названий доступных вещей по префиксу любого слова названия
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int BUILD_BATCH = 10_000;
+
+    private final ItemRepository itemRepository;
+    // последняя версия вещей, изменённых до готовности индекса и ещё не пройденных сканированием
+    // (null - вещь откатили): сканирование их пропускает, а в конце добавляет эту версию
+    private final Map<Integer, ItemDocument> changedBeforeBuild = new HashMap<>();
+    private ItemNameTrie trie = new ItemNameTrie(MAX_SUGGESTIONS);
+    // дерево, которое строит build(), и последний пройденный id: изменения уже пройденных вещей идут и в него
+    private ItemNameTrie rebuilding;
+    private int scannedUpTo;
+    private boolean built;
+
+    // запрос пачки идёт без блокировки, чтобы не задерживать транзакции, которые пишут в индекс
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            rebuilding = new ItemNameTrie(MAX_SUGGESTIONS);
+            scannedUpTo = 0;
+        }
+        int count = 0;
+        int lastId = 0;
+        Slice<Item> slice;
+        do {
+            slice = itemRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BUILD_BATCH));
+            synchronized (this) {
+                for (Item item : slice) {
+                    if (!changedBeforeBuild.containsKey(item.getId()) && Boolean.TRUE.equals(item.getIsAvailable())) {
+                        rebuilding.add(item.getName());
+                        count++;
+                    }
+                    lastId = item.getId();
+                }
+                scannedUpTo = lastId;
+            }
+        } while (slice.hasNext());
+        synchronized (this) {
+            for (ItemDocument document : changedBeforeBuild.values()) {
+                if (document != null && document.isAvailable()) {
+                    rebuilding.add(document.getName());
+                    count++;
+                }
+            }
+            changedBeforeBuild.clear();
+            trie = rebuilding;
+            rebuilding = null;
+            built = true;
+        }
+        log.info("Построен индекс подсказок: названий {}", count);
+    }
+
+    public void add(ItemDocument document) {
+        replace(null, document);
+        TransactionHooks.afterRollback(() -> replace(document, null));
+    }
+
+    public void update(ItemDocument previous, ItemDocument updated) {
+        replace(previous, updated);
+        TransactionHooks.afterRollback(() -> replace(updated, previous));
+    }
+
+    public synchronized List<String> suggest(String prefix, int size) {
+        return trie.suggest(prefix, Math.min(size, MAX_SUGGESTIONS));
+    }
+
+    private synchronized void replace(ItemDocument removed, ItemDocument added) {
+        apply(trie, removed, added);
+        int id = added != null ? added.getId() : removed.getId();
+        if (changedBeforeBuild.containsKey(id) || !built && (rebuilding == null || id > scannedUpTo)) {
+            changedBeforeBuild.put(id, added);
+        } else if (rebuilding != null) {
+            apply(rebuilding, removed, added);
+        }
+    }
+
+    private static void apply(ItemNameTrie target, ItemDocument removed, ItemDocument added) {
+        if (removed != null && removed.isAvailable()) {
+            target.remove(removed.getName());
+        }
+        if (added != null && added.isAvailable()) {
+            target.add(added.getName());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.tartarus.snowball.SnowballProgram;
+import org.tartarus.snowball.ext.EnglishStemmer;
+import org.tartarus.snowball.ext.RussianStemmer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// разбор текста для поиска: слова -> нижний регистр -> ё в е -> основа по Snowball (русский или английский)
+public class ItemTokenizer {
+
+    // основы слов одинаковы для индексации и запросов, поэтому считаются один раз
+    private static final Cache<String, String> STEMS = Caffeine.newBuilder()
+            .maximumSize(200_000)
+            .build();
+    // стеммеры Snowball хранят состояние и не потокобезопасны
+    private static final ThreadLocal<SnowballProgram> RUSSIAN = ThreadLocal.withInitial(RussianStemmer::new);
+    private static final ThreadLocal<SnowballProgram> ENGLISH = ThreadLocal.withInitial(EnglishStemmer::new);
+
+    public static Set<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            tokens.addAll(split(text));
+        }
+        return tokens;
+    }
+
+    public static Map<String, Integer> countTokens(String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String token : split(text)) {
+            counts.merge(token, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    static String analyze(String word) {
+        return STEMS.get(word.toLowerCase().replace('ё', 'е'), ItemTokenizer::stem);
+    }
+
+    private static String stem(String word) {
+        SnowballProgram stemmer = stemmerFor(word);
+        if (stemmer == null) {
+            return word;
+        }
+        stemmer.setCurrent(word);
+        stemmer.stem();
+        return stemmer.getCurrent();
+    }
+
+    private static SnowballProgram stemmerFor(String word) {
+        boolean latin = false;
+        for (int i = 0; i < word.length(); i++) {
+            Character.UnicodeScript script = Character.UnicodeScript.of(word.charAt(i));
+            if (script == Character.UnicodeScript.CYRILLIC) {
+                return RUSSIAN.get();
+            }
+            latin |= script == Character.UnicodeScript.LATIN;
+        }
+        return latin ? ENGLISH.get() : null;
+    }
+
+    private static List<String> split(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(analyze(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// триграммы токена с границами слова, как в pg_trgm: "дрель" -> "$$д", "$др", ..., "ль$"
+class ItemTrigrams {
+
+    static Set<String> of(String token) {
+        String padded = "$$" + token + "$";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static double similarity(String first, String second) {
+        Set<String> firstTrigrams = of(first);
+        Set<String> secondTrigrams = of(second);
+        int shared = 0;
+        for (String trigram : firstTrigrams) {
+            if (secondTrigrams.contains(trigram)) {
+                shared++;
+            }
+        }
+        return similarity(shared, firstTrigrams.size(), secondTrigrams.size());
+    }
+
+    static double similarity(int shared, int firstSize, int secondSize) {
+        return (double) shared / (firstSize + secondSize - shared);
+    }
+}
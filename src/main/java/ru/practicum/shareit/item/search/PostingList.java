@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// отсортированный список id вещей, содержащих токен, и частоты токена в названии и описании
+class PostingList {
+
+    private int[] ids = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    PostingList() {
+    }
+
+    PostingList(int[] ids, int[] frequencies) {
+        this.ids = ids;
+        this.frequencies = frequencies;
+        this.size = ids.length;
+    }
+
+    void add(int id, int nameFrequency, int descriptionFrequency) {
+        int frequency = nameFrequency << 16 | descriptionFrequency & 0xFFFF;
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size] = id;
+            frequencies[size++] = frequency;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            frequencies[position] = frequency;
+            return;
+        }
+        position = -position - 1;
+        ensureCapacity();
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+        ids[position] = id;
+        frequencies[position] = frequency;
+        size++;
+    }
+
+    void remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+        size--;
+    }
+
+    void removeAll(BitSet removed) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.get(ids[i])) {
+                ids[kept] = ids[i];
+                frequencies[kept++] = frequencies[i];
+            }
+        }
+        size = kept;
+    }
+
+    void addTo(BitSet target) {
+        for (int i = 0; i < size; i++) {
+            target.set(ids[i]);
+        }
+    }
+
+    int indexOf(int id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    int id(int index) {
+        return ids[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+
+    int nameFrequency(int index) {
+        return frequencies[index] >>> 16;
+    }
+
+    int descriptionFrequency(int index) {
+        return frequencies[index] & 0xFFFF;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +12,6 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Intege
 
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Integer requesterId);
 
-    Page<ItemRequest> findAllByRequesterIdNotOrderByCreatedDesc(Integer requesterId, Pageable page);
+    Slice<ItemRequest> findAllByRequesterIdNotOrderByCreatedDesc(Integer requesterId, Pageable page);
 
 }
@@ -15,7 +15,9 @@ import ru.practicum.shareit.utility.PageDefinition;
 
 import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,6 +38,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest savedRequest;
         try {
             ItemRequest request = ItemRequestMapper.toItemRequest(itemRequestDto);
+            // id из тела запроса игнорируется: иначе save() делает merge с лишним SELECT и может перезаписать чужой запрос
+            request.setId(null);
             request.setRequester(user);
             savedRequest = itemRequestRepository.save(request);
         } catch (ConstraintViolationException e) {
@@ -52,11 +56,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         userService.getUserById(userId);
         log.info("Получен список запросов для пользователя id={}", userId);
 
-        return itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId)
+        return setRequestItems(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId)
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDto)
-                .peek(itemRequestDto -> itemRequestDto.setItems(getRequestItems(itemRequestDto.getId())))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -79,11 +82,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         userService.getUserById(userId);
         log.info("Пользователем id={} вызван список других запросов", userId);
 
-        return itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, PageDefinition.definePage(from, size))
+        return setRequestItems(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, PageDefinition.definePage(from, size))
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDto)
-                .peek(itemRequestDto -> itemRequestDto.setItems(getRequestItems(itemRequestDto.getId())))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    private List<ItemRequestDto> setRequestItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        Map<Integer, List<ItemDto>> itemsByRequest = itemRepository.findAllByRequestIdIn(
+                        requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        requests.forEach(request -> request.setItems(itemsByRequest.getOrDefault(request.getId(), new ArrayList<>())));
+
+        return requests;
     }
 
     private List<ItemDto> getRequestItems(Integer requestId) {
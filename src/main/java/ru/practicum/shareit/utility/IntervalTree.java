@@ -0,0 +1,192 @@
+package ru.practicum.shareit.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Декартово дерево интервалов [start, end) по (start, id) с максимумом концов в узле, не потокобезопасно
+public class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    public void add(long start, long end, int id) {
+        root = insert(root, new Node(start, end, id));
+        size++;
+    }
+
+    public boolean remove(long start, int id) {
+        int before = size;
+        root = delete(root, start, id);
+        return size < before;
+    }
+
+    // удаляет интервалы, закончившиеся не позже time, заходя только в поддеревья с такими концами
+    public int removeEndedBefore(long time) {
+        int before = size;
+        root = prune(root, time);
+        return before - size;
+    }
+
+    public boolean overlaps(long start, long end) {
+        Node node = root;
+        while (node != null && node.maxEnd > start) {
+            if (node.start < end && node.end > start) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else if (node.start < end) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public List<Integer> findOverlapping(long start, long end) {
+        List<Integer> ids = new ArrayList<>();
+        collect(root, start, end, ids);
+        return ids;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void collect(Node node, long start, long end, List<Integer> ids) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, ids);
+        if (node.start < end) {
+            if (node.end > start) {
+                ids.add(node.id);
+            }
+            collect(node.right, start, end, ids);
+        }
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node prune(Node node, long time) {
+        if (node == null || node.minEnd > time) {
+            return node;
+        }
+        node.left = prune(node.left, time);
+        node.right = prune(node.right, time);
+        if (node.end <= time) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static int compare(long start, int id, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private static class Node {
+        private final long start;
+        private final long end;
+        private final int id;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private long maxEnd;
+        private long minEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long start, long end, int id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+            this.minEnd = end;
+        }
+
+        private void update() {
+            maxEnd = end;
+            minEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+                minEnd = Math.min(minEnd, left.minEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+                minEnd = Math.min(minEnd, right.minEnd);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- last / next booking for an item, owner listings joined through items
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date);
+
+-- booker listings ordered by start
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date);
+
+-- owner item listings
+CREATE INDEX idx_items_owner ON items (owner_id);
+
+-- items answering requests
+CREATE INDEX idx_items_request ON items (request_id);
+
+-- comments of an item
+CREATE INDEX idx_comments_item ON comments (item_id);
+
+-- own requests ordered by creation date
+CREATE INDEX idx_requests_requester_created ON requests (requester_id, created);
+
+-- foreign requests feed ordered by creation date
+CREATE INDEX idx_requests_created ON requests (created);
@@ -0,0 +1,9 @@
+-- added after V2 so that H2 backs the constraints with the query indexes instead of creating its own
+
+ALTER TABLE requests ADD CONSTRAINT fk_request_user FOREIGN KEY (requester_id) REFERENCES users (id);
+ALTER TABLE items ADD CONSTRAINT fk_item_user FOREIGN KEY (owner_id) REFERENCES users (id);
+ALTER TABLE items ADD CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_booking_user FOREIGN KEY (booker_id) REFERENCES users (id);
+ALTER TABLE comments ADD CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items (id);
+ALTER TABLE comments ADD CONSTRAINT fk_comment_user FOREIGN KEY (author_id) REFERENCES users (id);
@@ -0,0 +1,5 @@
+-- owner WAITING / REJECTED queues: per item range scan on status, already ordered by start
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- booker WAITING / REJECTED lists
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date);
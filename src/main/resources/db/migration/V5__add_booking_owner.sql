@@ -0,0 +1,13 @@
+-- owner listings filter bookings directly instead of joining through items
+ALTER TABLE bookings ADD COLUMN owner_id BIGINT;
+
+UPDATE bookings SET owner_id = (SELECT it.owner_id FROM items it WHERE it.id = bookings.item_id);
+
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+
+CREATE INDEX idx_bookings_owner_start ON bookings (owner_id, start_date);
+
+-- owner WAITING / REJECTED queues
+CREATE INDEX idx_bookings_owner_status_start ON bookings (owner_id, status, start_date);
+
+ALTER TABLE bookings ADD CONSTRAINT fk_booking_owner FOREIGN KEY (owner_id) REFERENCES users (id);
@@ -0,0 +1,4 @@
+-- the search index snapshot replays items changed after its high-water mark
+ALTER TABLE items ADD COLUMN updated TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE INDEX idx_items_updated ON items (updated);
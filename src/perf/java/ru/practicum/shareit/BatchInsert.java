@@ -0,0 +1,33 @@
+package ru.practicum.shareit;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// Общие части загрузки синтетических наборов через JDBC: пакетная вставка с явными ключами и сдвиг счётчиков
+public final class BatchInsert {
+
+    private static final int BATCH = 10_000;
+
+    private BatchInsert() {
+    }
+
+    // id строки идёт по порядку с единицы, пакет отправляется каждые BATCH строк, остаток — executeBatch вызывающего
+    public static void add(PreparedStatement insert, int id) throws SQLException {
+        insert.addBatch();
+        if (id % BATCH == 0) {
+            insert.executeBatch();
+        }
+    }
+
+    // ключи заданы явно, счётчики identity сдвигаются за них, чтобы приложение могло вставлять дальше
+    public static void restartIdentities(Connection connection, Map<String, Integer> rows) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            for (Map.Entry<String, Integer> table : rows.entrySet()) {
+                ddl.execute("ALTER TABLE " + table.getKey() + " ALTER COLUMN id RESTART WITH " + (table.getValue() + 1));
+            }
+        }
+    }
+}
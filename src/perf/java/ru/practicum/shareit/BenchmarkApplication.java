@@ -0,0 +1,53 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.load.DatasetGenerator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Контекст приложения на собственной H2-базе: без веб-сервера с BenchmarkDataset для JMH
+// или с сервером на случайном порту поверх базы из DatasetGenerator для нагрузочного прогона.
+// Параметры передаются как аргументы командной строки, чтобы перекрыть SQL-логирование из application.properties.
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, BenchmarkDataset dataset) throws SQLException {
+        ConfigurableApplicationContext context = run(WebApplicationType.NONE, url(database));
+        dataset.fill(context.getBean(DataSource.class));
+        return context;
+    }
+
+    // база заполняется до старта, чтобы поисковые индексы построились по ней
+    public static ConfigurableApplicationContext startServer(String database,
+                                                             DatasetGenerator generator) throws SQLException {
+        String url = url(database);
+        generator.generate(url, "test", "test");
+        return run(WebApplicationType.SERVLET, url, "--server.port=0", "--logging.level.ru.practicum.shareit=ERROR");
+    }
+
+    private static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String url, String... args) {
+        String[] common = {"--spring.datasource.url=" + url,
+            "--spring.jpa.properties.hibernate.show_sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--logging.level.org.springframework.transaction.interceptor=WARN",
+            "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"};
+        String[] all = new String[common.length + args.length];
+        System.arraycopy(common, 0, all, 0, common.length);
+        System.arraycopy(args, 0, all, common.length, args.length);
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(type)
+                .logStartupInfo(false)
+                .run(all);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+
+// Равномерный синтетический набор для бенчмарков сервисов: вещами владеет каждый десятый пользователь
+// (id 1..owners), бронирования разбросаны на полгода в обе стороны от текущего момента
+public final class BenchmarkDataset {
+
+    public static final int OWNER_ID = 1;
+
+    private static final String[] NOUNS = {"дрель", "перфоратор", "шуруповёрт", "лобзик", "палатка", "велосипед",
+        "самокат", "лестница", "пылесос", "рюкзак", "гитара", "проектор", "мангал", "спальник", "каяк"};
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "APPROVED", "APPROVED", "APPROVED",
+        "APPROVED", "APPROVED", "WAITING", "WAITING", "REJECTED"};
+
+    private final int bookings;
+    private final int users;
+    private final int owners;
+    private final int items;
+
+    public BenchmarkDataset(int bookings) {
+        this.bookings = bookings;
+        this.users = Math.max(100, bookings / 100);
+        this.owners = users / 10;
+        this.items = Math.max(owners, bookings / 10);
+    }
+
+    // первый пользователь, который ничем не владеет
+    public int bookerId() {
+        return owners + 1;
+    }
+
+    public void fill(DataSource dataSource) throws SQLException {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (id, name, email) VALUES (?, ?, ?)")) {
+                for (int id = 1; id <= users; id++) {
+                    insert.setInt(1, id);
+                    insert.setString(2, "Пользователь " + id);
+                    insert.setString(3, "user" + id + "@shareit.ru");
+                    BatchInsert.add(insert, id);
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO items (id, name, description, owner_id, is_available) VALUES (?, ?, ?, ?, ?)")) {
+                for (int id = 1; id <= items; id++) {
+                    String noun = NOUNS[random.nextInt(NOUNS.length)];
+                    insert.setInt(1, id);
+                    insert.setString(2, noun + " " + id);
+                    insert.setString(3, "Сдаю " + noun + " в хорошем состоянии");
+                    insert.setInt(4, 1 + (id - 1) % owners);
+                    insert.setBoolean(5, random.nextInt(10) > 0);
+                    BatchInsert.add(insert, id);
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bookings " +
+                    "(id, start_date, end_date, item_id, booker_id, owner_id, status) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int id = 1; id <= bookings; id++) {
+                    int item = 1 + random.nextInt(items);
+                    LocalDateTime start = now.plusMinutes(random.nextInt(365 * 24 * 60) - 182 * 24 * 60);
+                    insert.setInt(1, id);
+                    insert.setTimestamp(2, Timestamp.valueOf(start));
+                    insert.setTimestamp(3, Timestamp.valueOf(start.plusHours(1 + random.nextInt(72))));
+                    insert.setInt(4, item);
+                    insert.setInt(5, owners + 1 + random.nextInt(users - owners));
+                    insert.setInt(6, 1 + (item - 1) % owners);
+                    insert.setString(7, STATUSES[random.nextInt(STATUSES.length)]);
+                    BatchInsert.add(insert, id);
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)")) {
+                for (int id = 1; id <= bookings / 10; id++) {
+                    insert.setInt(1, id);
+                    insert.setString(2, "Всё работает, спасибо");
+                    insert.setInt(3, 1 + random.nextInt(items));
+                    insert.setInt(4, owners + 1 + random.nextInt(users - owners));
+                    insert.setTimestamp(5, Timestamp.valueOf(now.minusDays(random.nextInt(180))));
+                    BatchInsert.add(insert, id);
+                }
+                insert.executeBatch();
+            }
+            BatchInsert.restartIdentities(connection,
+                    Map.of("users", users, "items", items, "bookings", bookings, "comments", bookings / 10));
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemDtoBooking;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="MapperBenchmark -f 1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+
+    private Booking booking;
+    private Item item;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        User owner = new User(1, "Владелец", "owner@shareit.ru");
+        User booker = new User(2, "Арендатор", "booker@shareit.ru");
+        ItemRequest request = new ItemRequest(3, "Нужна дрель", start.minusDays(2), booker);
+        item = new Item(4, "Дрель", "Ударная дрель Bosch", owner, true);
+        item.setRequest(request);
+        booking = new Booking(5, start, start.plusHours(3), item, booker, BookingStatus.APPROVED);
+        comment = new Comment(6, "Всё работает, спасибо", start.minusDays(1));
+        comment.setItem(item);
+        comment.setAuthor(booker);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public BookingItemDto bookingToItemDto() {
+        return BookingMapper.toBookingItemDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemDtoBooking itemToDtoBooking() {
+        return ItemMapper.toItemDtoBooking(item);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.toCommentDto(comment);
+    }
+}
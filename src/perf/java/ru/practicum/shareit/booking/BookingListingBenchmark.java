@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.BenchmarkApplication;
+import ru.practicum.shareit.BenchmarkDataset;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="BookingListingBenchmark -f 1 -p bookings=100000 -p state=ALL"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingListingBenchmark {
+
+    private static final int PAGE = 20;
+    private static final int DEEP_OFFSET = 200;
+
+    @Param({"100000"})
+    private int bookings;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"})
+    private String state;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private int bookerId;
+    private String deepCursor;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDataset dataset = new BenchmarkDataset(bookings);
+        context = BenchmarkApplication.start("bookings" + bookings + state, dataset);
+        bookingService = context.getBean(BookingService.class);
+        bookerId = dataset.bookerId();
+        // курсор на ту же глубину, что и смещение, чтобы сравнить OFFSET и keyset на одной странице
+        List<BookingDto> page = bookingService.getBookingsForOwner(BenchmarkDataset.OWNER_ID, state,
+                DEEP_OFFSET - PAGE, PAGE);
+        deepCursor = page.isEmpty() ? null : BookingCursor.of(page.get(page.size() - 1)).encode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerFirstPage() {
+        return bookingService.getBookingsForOwner(BenchmarkDataset.OWNER_ID, state, 0, PAGE);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookerFirstPage() {
+        return bookingService.getBookingsForUser(bookerId, state, 0, PAGE);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerDeepOffset() {
+        return bookingService.getBookingsForOwner(BenchmarkDataset.OWNER_ID, state, DEEP_OFFSET, PAGE);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerDeepKeyset() {
+        if (deepCursor == null) {
+            return List.of();
+        }
+        return bookingService.getBookingsForOwnerAfter(BenchmarkDataset.OWNER_ID, state, deepCursor, PAGE);
+    }
+}
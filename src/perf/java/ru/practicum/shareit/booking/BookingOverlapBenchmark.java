@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.utility.IntervalTree;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="BookingOverlapBenchmark -f 1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingOverlapBenchmark {
+
+    private static final String OVERLAP_QUERY = "SELECT EXISTS(SELECT 1 FROM bookings " +
+            "WHERE item_id = ? AND status IN ('WAITING', 'APPROVED') AND start_date < ? AND end_date > ?)";
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000"})
+    private int bookingsPerItem;
+
+    private final IntervalTree tree = new IntervalTree();
+    private final LocalDateTime[] queryStarts = new LocalDateTime[QUERIES];
+    private final LocalDateTime[] queryEnds = new LocalDateTime[QUERIES];
+    private Connection connection;
+    private PreparedStatement statement;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:overlap" + bookingsPerItem, "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, start_date TIMESTAMP, end_date TIMESTAMP, " +
+                    "item_id BIGINT, status VARCHAR(50))");
+            ddl.execute("CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date)");
+        }
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bookings VALUES (?, ?, ?, 1, 'APPROVED')")) {
+            for (int id = 0; id < bookingsPerItem; id++) {
+                LocalDateTime start = base.plusHours(3L * id);
+                LocalDateTime end = start.plusHours(2);
+                insert.setInt(1, id);
+                insert.setTimestamp(2, Timestamp.valueOf(start));
+                insert.setTimestamp(3, Timestamp.valueOf(end));
+                insert.addBatch();
+                tree.add(BookingIntervalIndex.toMicros(start), BookingIntervalIndex.toMicros(end), id);
+            }
+            insert.executeBatch();
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            queryStarts[i] = base.plusMinutes(random.nextInt(bookingsPerItem * 180));
+            queryEnds[i] = queryStarts[i].plusMinutes(30 + random.nextInt(120));
+        }
+        statement = connection.prepareStatement(OVERLAP_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean intervalTree() {
+        int i = next++ & (QUERIES - 1);
+        return tree.overlaps(BookingIntervalIndex.toMicros(queryStarts[i]), BookingIntervalIndex.toMicros(queryEnds[i]));
+    }
+
+    @Benchmark
+    public boolean sqlOverlapQuery() throws SQLException {
+        int i = next++ & (QUERIES - 1);
+        statement.setInt(1, 1);
+        statement.setTimestamp(2, Timestamp.valueOf(queryEnds[i]));
+        statement.setTimestamp(3, Timestamp.valueOf(queryStarts[i]));
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.BenchmarkApplication;
+import ru.practicum.shareit.BenchmarkDataset;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="ItemsByOwnerBenchmark -f 1 -p bookings=1000000"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ItemsByOwnerBenchmark {
+
+    @Param({"100000"})
+    private int bookings;
+
+    @Param({"10", "50"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup
+    public void setUp() throws SQLException {
+        context = BenchmarkApplication.start("items" + bookings + "x" + size, new BenchmarkDataset(bookings));
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDtoBooking> itemsByOwner() {
+        return itemService.getItemsByOwner(BenchmarkDataset.OWNER_ID, 0, size);
+    }
+
+    @Benchmark
+    public ItemDtoBooking itemCard() {
+        return itemService.getItemDtoBookingById(1, BenchmarkDataset.OWNER_ID);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="ItemSearchBenchmark -f 1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ItemSearchBenchmark {
+
+    private static final String LIKE_QUERY = "SELECT id FROM items " +
+            "WHERE (UPPER(name) LIKE UPPER(CONCAT('%', ?, '%')) OR UPPER(description) LIKE UPPER(CONCAT('%', ?, '%'))) " +
+            "AND is_available = TRUE ORDER BY id LIMIT 10";
+    private static final String[] NOUNS = {"дрель", "перфоратор", "шуруповёрт", "лобзик", "палатка", "велосипед",
+        "самокат", "лестница", "пылесос", "рюкзак", "гитара", "проектор", "мангал", "спальник", "каяк"};
+    private static final String[] ADJECTIVES = {"ударная", "аккумуляторная", "складная", "детская", "туристическая",
+        "профессиональная", "компактная", "лёгкая", "мощная", "старая"};
+    private static final String[] QUERIES = {"дрел", "аккумулятор", "палатка туристическая", "каяк", "мощн"};
+    private static final String[] TYPOS = {"дрэль", "акумуляторная", "палатко туристичская", "кайак", "мошная"};
+
+    @Param({"1000000"})
+    private int items;
+
+    private final ItemSearchIndex index = new ItemSearchIndex(null, new ItemSearchProperties());
+    private Connection connection;
+    private PreparedStatement statement;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search" + items, "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(255), description VARCHAR(512), " +
+                    "is_available BOOLEAN)");
+        }
+        Random random = new Random(13);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO items VALUES (?, ?, ?, ?)")) {
+            for (int id = 1; id <= items; id++) {
+                String name = NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+                String description = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[random.nextInt(NOUNS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+                boolean available = random.nextInt(10) > 0;
+                insert.setInt(1, id);
+                insert.setString(2, name);
+                insert.setString(3, description);
+                insert.setBoolean(4, available);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                index.add(new ItemDocument(id, name, description, available));
+            }
+            insert.executeBatch();
+        }
+        statement = connection.prepareStatement(LIKE_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public int invertedIndex() {
+        BitSet matches = index.search(QUERIES[next++ % QUERIES.length]);
+        int found = 0;
+        for (int id = matches.nextSetBit(0); id >= 0 && found < 10; id = matches.nextSetBit(id + 1)) {
+            found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int rankedTop10() {
+        return index.searchRanked(QUERIES[next++ % QUERIES.length], 10, id -> true).size();
+    }
+
+    @Benchmark
+    public int fuzzyTop10() {
+        return index.searchFuzzy(TYPOS[next++ % TYPOS.length], 10, id -> true).size();
+    }
+
+    @Benchmark
+    public int likeQuery() throws SQLException {
+        String query = QUERIES[next++ % QUERIES.length];
+        statement.setString(1, query);
+        statement.setString(2, query);
+        int found = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item.search;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+// mvn -Pperf test-compile exec:exec -Djmh.args="ItemSearchSnapshotBenchmark -f 1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ItemSearchSnapshotBenchmark {
+
+    private static final String[] NOUNS = {"дрель", "перфоратор", "шуруповёрт", "лобзик", "палатка", "велосипед",
+        "самокат", "лестница", "пылесос", "рюкзак", "гитара", "проектор", "мангал", "спальник", "каяк"};
+    private static final String[] ADJECTIVES = {"ударная", "аккумуляторная", "складная", "детская", "туристическая",
+        "профессиональная", "компактная", "лёгкая", "мощная", "старая"};
+
+    @Param({"1000000"})
+    private int items;
+
+    private final List<Item> catalogue = new ArrayList<>();
+    private ItemSearchProperties properties;
+    private ItemRepository itemRepository;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(13);
+        for (int id = 1; id <= items; id++) {
+            String name = NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+            String description = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            catalogue.add(new Item(id, name, description, random.nextInt(10) > 0));
+        }
+        // репозиторий отдаёт весь каталог одной страницей, а после снимка изменений нет
+        itemRepository = (ItemRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{ItemRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllByIdGreaterThanOrderByIdAsc")) {
+                        return new SliceImpl<>(catalogue, (Pageable) args[1], false);
+                    }
+                    return new SliceImpl<Item>(List.of());
+                });
+        directory = Files.createTempDirectory("snapshot");
+        properties = new ItemSearchProperties();
+        properties.getSnapshot().setPath(directory.resolve("items.snapshot").toString());
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, properties);
+        index.build();
+        index.writeSnapshot();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("items.snapshot"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean loadSnapshot() {
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, properties);
+        index.build();
+        return index.isBuilt();
+    }
+
+    @Benchmark
+    public int readSnapshotFile() throws IOException {
+        return ItemSearchSnapshot.read(directory.resolve("items.snapshot")).getPostings().size();
+    }
+
+    @Benchmark
+    public boolean rebuildFromItems() {
+        ItemSearchProperties rebuild = new ItemSearchProperties();
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, rebuild);
+        index.build();
+        return index.isBuilt();
+    }
+}
@@ -0,0 +1,306 @@
+package ru.practicum.shareit.load;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.flywaydb.core.Flyway;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.BatchInsert;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+// mvn -Pperf test-compile exec:exec -Dperf.main=ru.practicum.shareit.load.DatasetGenerator
+//     -Dperf.args="--url=jdbc:h2:file:./target/shareit-load --bookings=1000000"
+// Синтетическая база с перекосом как в живом сервисе: вещи распределены между владельцами по степенному закону
+// (у первого владельца каждая десятая вещь), бронирования - по Ципфу между вещами, так что у горячих вещей
+// тысячи броней без пересечений, а у хвоста по одной-две. Схема создаётся миграциями Flyway, база должна быть пустой.
+public final class DatasetGenerator {
+
+    static final double OWNER_EXPONENT = 1.0;
+    static final double ITEM_EXPONENT = 0.7;
+    static final double BOOKER_EXPONENT = 0.8;
+
+    static final String[] NOUNS = {"дрель", "перфоратор", "шуруповёрт", "лобзик", "болгарка", "палатка", "спальник",
+        "велосипед", "самокат", "лестница", "пылесос", "рюкзак", "гитара", "проектор", "мангал", "каяк", "сноуборд",
+        "лыжи", "коляска", "фотоаппарат", "штатив", "удочка", "газонокосилка", "генератор", "компрессор"};
+
+    private static final int PAST_DAYS = 365;
+    private static final int FUTURE_DAYS = 90;
+    private static final String[] BRANDS = {"Bosch", "Makita", "Интерскол", "Зубр", "Stels", "Xiaomi", "Nikon",
+        "Canon", "Salewa", "Quechua", "Karcher", "Yamaha"};
+    private static final String[] DETAILS = {"В отличном состоянии.", "Использовалось пару раз.",
+        "Есть кейс и зарядка.", "Отдам на выходные.", "Самовывоз от метро.", "Залог обсуждается.",
+        "Инструкция в комплекте.", "Подходит для дачи.", "Прошу обращаться бережно.", "Могу привезти сам."};
+    private static final String[] REQUESTS = {"Ищу на выходные: %s", "Кто может одолжить %s?", "Срочно нужно: %s",
+        "Возьму в аренду на неделю: %s", "Нужен кто-то, у кого есть %s"};
+    private static final String[] COMMENTS = {"Всё работает, спасибо", "Вещь как в описании",
+        "Владелец пунктуальный, рекомендую", "Немного потёрто, но работает", "Вернул вовремя, всё отлично",
+        "Не хватило аккумулятора, в остальном хорошо", "Пользовался неделю, претензий нет"};
+    private static final String[] FIRST_NAMES = {"Александр", "Мария", "Дмитрий", "Анна", "Сергей", "Елена", "Иван",
+        "Ольга", "Андрей", "Наталья", "Михаил", "Татьяна", "Алексей", "Екатерина", "Николай", "Юлия"};
+    private static final String INITIALS = "АБВГДЕЖЗИКЛМНОПРСТУФХЧШЯ";
+
+    private final int bookings;
+    private final int users;
+    private final int owners;
+    private final int items;
+    private final int requests;
+    private final int comments;
+    private final long seed;
+
+    public DatasetGenerator(int bookings) {
+        this(bookings, 42);
+    }
+
+    public DatasetGenerator(int bookings, long seed) {
+        this.bookings = bookings;
+        this.users = Math.max(100, bookings / 10);
+        this.owners = Math.max(10, users / 5);
+        this.items = Math.max(owners, bookings / 5);
+        this.requests = Math.max(10, bookings / 20);
+        this.comments = bookings / 10;
+        this.seed = seed;
+    }
+
+    public int users() {
+        return users;
+    }
+
+    public int items() {
+        return items;
+    }
+
+    public int requests() {
+        return requests;
+    }
+
+    Zipf ownerActivity() {
+        return new Zipf(owners, OWNER_EXPONENT);
+    }
+
+    Zipf itemPopularity() {
+        return new Zipf(items, ITEM_EXPONENT);
+    }
+
+    Zipf bookerActivity() {
+        return new Zipf(users, BOOKER_EXPONENT);
+    }
+
+    // самые активные арендаторы идут сразу за владельцами, ранг 0 - первый пользователь без вещей
+    int bookerId(int rank) {
+        return (owners + rank) % users + 1;
+    }
+
+    public void generate(String url, String user, String password) throws SQLException {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            fill(connection);
+        }
+    }
+
+    public void fill(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            rs.next();
+            if (rs.getLong(1) > 0) {
+                throw new IllegalStateException("База уже содержит пользователей, генератору нужна пустая схема");
+            }
+        }
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        insertUsers(connection, random);
+        started = report("users", users, started);
+        insertRequests(connection, random, now);
+        started = report("requests", requests, started);
+        int[] itemOwners = insertItems(connection, random);
+        started = report("items", items, started);
+        // пары (вещь, арендатор) завершённых одобренных бронирований, из них берутся авторы комментариев
+        int[] finished = insertBookings(connection, random, now, itemOwners);
+        started = report("bookings", bookings, started);
+        insertComments(connection, random, now, finished);
+        report("comments", comments, started);
+        BatchInsert.restartIdentities(connection, Map.of("users", users, "requests", requests, "items", items,
+                "bookings", bookings, "comments", comments));
+        connection.commit();
+    }
+
+    private void insertUsers(Connection connection, Random random) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, name, email) VALUES (?, ?, ?)")) {
+            for (int id = 1; id <= users; id++) {
+                insert.setInt(1, id);
+                char initial = INITIALS.charAt(random.nextInt(INITIALS.length()));
+                insert.setString(2, pick(FIRST_NAMES, random) + " " + initial + ".");
+                insert.setString(3, "user" + id + "@shareit.ru");
+                BatchInsert.add(insert, id);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void insertRequests(Connection connection, Random random, LocalDateTime now) throws SQLException {
+        Zipf requesters = bookerActivity();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO requests (id, description, created, requester_id) VALUES (?, ?, ?, ?)")) {
+            for (int id = 1; id <= requests; id++) {
+                insert.setInt(1, id);
+                insert.setString(2, String.format(pick(REQUESTS, random), pick(NOUNS, random)));
+                insert.setTimestamp(3, Timestamp.valueOf(now.minusMinutes(random.nextInt(PAST_DAYS * 24 * 60))));
+                insert.setInt(4, bookerId(requesters.sample(random)));
+                BatchInsert.add(insert, id);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private int[] insertItems(Connection connection, Random random) throws SQLException {
+        Zipf ownersByItems = ownerActivity();
+        int[] itemOwners = new int[items + 1];
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO items " +
+                "(id, name, description, owner_id, is_available, request_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= items; id++) {
+                String noun = pick(NOUNS, random);
+                String brand = pick(BRANDS, random);
+                itemOwners[id] = 1 + ownersByItems.sample(random);
+                insert.setInt(1, id);
+                insert.setString(2, capitalize(noun) + " " + brand);
+                insert.setString(3, capitalize(noun) + " " + brand + ". " + pick(DETAILS, random) + " " +
+                        pick(DETAILS, random));
+                insert.setInt(4, itemOwners[id]);
+                insert.setBoolean(5, random.nextInt(10) > 0);
+                if (random.nextInt(10) == 0) {
+                    insert.setInt(6, 1 + random.nextInt(requests));
+                } else {
+                    insert.setNull(6, Types.BIGINT);
+                }
+                BatchInsert.add(insert, id);
+            }
+            insert.executeBatch();
+        }
+        return itemOwners;
+    }
+
+    // Бронирования вещи не пересекаются: окно в год назад и квартал вперёд делится на столько слотов,
+    // сколько броней выпало вещи, и каждая бронь занимает часть своего слота.
+    private int[] insertBookings(Connection connection, Random random, LocalDateTime now,
+                                 int[] itemOwners) throws SQLException {
+        Zipf popularity = itemPopularity();
+        Zipf bookers = bookerActivity();
+        int[] counts = new int[items + 1];
+        for (int i = 0; i < bookings; i++) {
+            counts[1 + popularity.sample(random)]++;
+        }
+        LocalDateTime windowStart = now.minusDays(PAST_DAYS);
+        long window = (PAST_DAYS + FUTURE_DAYS) * 24L * 60;
+        int[] finished = new int[2 * bookings];
+        int finishedCount = 0;
+        int id = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bookings " +
+                "(id, start_date, end_date, item_id, booker_id, owner_id, status) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int item = 1; item <= items; item++) {
+                long slot = window / Math.max(1, counts[item]);
+                for (int n = 0; n < counts[item]; n++) {
+                    long offset = n * slot + (long) (random.nextDouble() * slot * 0.2);
+                    long duration = Math.max(1, Math.min((long) (slot * 0.8), 60L * (1 + random.nextInt(72))));
+                    LocalDateTime start = windowStart.plusMinutes(offset);
+                    LocalDateTime end = start.plusMinutes(duration);
+                    int booker = bookerId(bookers.sample(random));
+                    if (booker == itemOwners[item]) {
+                        booker = booker % users + 1;
+                    }
+                    String status = status(random, now, start, end);
+                    insert.setInt(1, ++id);
+                    insert.setTimestamp(2, Timestamp.valueOf(start));
+                    insert.setTimestamp(3, Timestamp.valueOf(end));
+                    insert.setInt(4, item);
+                    insert.setInt(5, booker);
+                    insert.setInt(6, itemOwners[item]);
+                    insert.setString(7, status);
+                    BatchInsert.add(insert, id);
+                    if (end.isBefore(now) && status.equals("APPROVED")) {
+                        finished[finishedCount++] = item;
+                        finished[finishedCount++] = booker;
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        return Arrays.copyOf(finished, finishedCount);
+    }
+
+    private static String status(Random random, LocalDateTime now, LocalDateTime start, LocalDateTime end) {
+        int dice = random.nextInt(100);
+        if (end.isBefore(now)) {
+            return dice < 85 ? "APPROVED" : "REJECTED";
+        }
+        if (start.isBefore(now)) {
+            return "APPROVED";
+        }
+        return dice < 40 ? "WAITING" : dice < 90 ? "APPROVED" : "REJECTED";
+    }
+
+    private void insertComments(Connection connection, Random random, LocalDateTime now,
+                                int[] finished) throws SQLException {
+        int pairs = finished.length / 2;
+        if (pairs == 0) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= comments; id++) {
+                int pair = random.nextInt(pairs);
+                insert.setInt(1, id);
+                insert.setString(2, pick(COMMENTS, random));
+                insert.setInt(3, finished[2 * pair]);
+                insert.setInt(4, finished[2 * pair + 1]);
+                insert.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(random.nextInt(PAST_DAYS * 24 * 60))));
+                BatchInsert.add(insert, id);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private static long report(String table, int rows, long started) {
+        long finished = System.nanoTime();
+        System.out.printf("%-9s %,10d строк за %,d мс%n", table, rows, (finished - started) / 1_000_000);
+        return finished;
+    }
+
+    // вне Spring-контекста logback по умолчанию пишет DEBUG, в том числе каждый оператор миграций Flyway
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        quietLogging();
+        LoadOptions options = LoadOptions.parse(args);
+        new DatasetGenerator(options.getInt("bookings", 1_000_000), options.getInt("seed", 42))
+                .generate(options.get("url", "jdbc:h2:file:./target/shareit-load"),
+                        options.get("user", "test"), options.get("password", "test"));
+    }
+}
@@ -0,0 +1,226 @@
+package ru.practicum.shareit.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.BenchmarkApplication;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// mvn -Pperf test-compile exec:exec -Dperf.main=ru.practicum.shareit.load.LoadDriver
+//     -Dperf.args="--bookings=1000000 --threads=16 --warmup=PT30S --duration=PT2M"
+// Без --url поднимает приложение на случайном порту поверх базы из DatasetGenerator, с --url нагружает уже
+// запущенный сервис, тогда --bookings должен совпадать с тем, с которым генерировалась его база.
+// По умолчанию модель закрытая: каждый поток шлёт следующий запрос сразу после ответа. С --rate потоки идут по
+// расписанию, а задержка считается от запланированного момента, чтобы очередь на сервере не пряталась
+// от гистограммы (coordinated omission).
+public final class LoadDriver {
+
+    private static final String DEFAULT_MIX =
+            "item:25,search:20,suggest:10,owner-items:10,bookings:10,owner-bookings:10,requests:10,book:5";
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final Workload workload;
+    private final Operation[] operations;
+    private final int[] weights;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private volatile boolean running = true;
+
+    LoadDriver(Workload workload, String mix) {
+        this.workload = workload;
+        String[] entries = mix.split(",");
+        this.operations = new Operation[entries.length];
+        this.weights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] entry = entries[i].trim().split(":");
+            operations[i] = Operation.of(entry[0]);
+            total += entry.length > 1 ? Integer.parseInt(entry[1]) : 1;
+            weights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetGenerator.quietLogging();
+        LoadOptions options = LoadOptions.parse(args);
+        DatasetGenerator dataset = new DatasetGenerator(options.getInt("bookings", 100_000),
+                options.getInt("seed", 42));
+        ConfigurableApplicationContext context = null;
+        String url = options.get("url", null);
+        if (url == null) {
+            context = BenchmarkApplication.startServer("load", dataset);
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadDriver driver = new LoadDriver(new Workload(url, dataset), options.get("mix", DEFAULT_MIX));
+            driver.run(options.getInt("threads", 8), options.getInt("rate", 0), options.getInt("seed", 42),
+                    options.getDuration("warmup", Duration.ofSeconds(10)),
+                    options.getDuration("duration", Duration.ofSeconds(60)));
+            String histograms = options.get("histograms", null);
+            if (histograms != null) {
+                driver.writeHistograms(Path.of(histograms));
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void run(int threads, int rate, long seed, Duration warmup, Duration duration) throws InterruptedException {
+        // интервал между запросами одного потока, 0 - закрытая модель
+        long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(threads) / rate : 0;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(seed + i);
+            Thread worker = new Thread(() -> work(random, interval), "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(warmup.toMillis());
+        stats.values().forEach(OperationStats::reset);
+        long started = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        running = false;
+        long elapsed = System.nanoTime() - started;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        report(System.out, threads, rate, elapsed);
+    }
+
+    private void work(Random random, long interval) {
+        long intended = System.nanoTime();
+        while (running) {
+            Operation operation = next(random);
+            HttpRequest request = operation.request(workload, random);
+            if (interval > 0) {
+                LockSupport.parkNanos(intended - System.nanoTime());
+            } else {
+                intended = System.nanoTime();
+            }
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            stats.get(operation).record(System.nanoTime() - intended, status);
+            intended += interval;
+        }
+    }
+
+    private Operation next(Random random) {
+        int point = random.nextInt(weights[weights.length - 1]);
+        for (int i = 0; i < weights.length; i++) {
+            if (point < weights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void report(PrintStream out, int threads, int rate, long elapsed) {
+        double seconds = elapsed / 1e9;
+        out.printf("%nПотоков: %d, замер %.1f с, %s%n", threads, seconds,
+                rate > 0 ? "расписание " + rate + " запр/с" : "закрытая модель");
+        out.printf("%-15s %9s %9s %8s %7s %7s %9s %9s %9s %9s %9s%n", "операция", "запросов", "запр/с",
+                "2xx", "4xx", "ошибки", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс");
+        OperationStats total = new OperationStats();
+        total.latency = new Histogram(MAX_LATENCY, 3);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            operation.finish();
+            total.add(operation);
+            print(out, entry.getKey().key(), operation, seconds);
+        }
+        print(out, "итого", total, seconds);
+    }
+
+    private static void print(PrintStream out, String name, OperationStats stats, double seconds) {
+        Histogram latency = stats.latency;
+        out.printf("%-15s %9d %9.1f %8d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, latency.getTotalCount(),
+                latency.getTotalCount() / seconds, stats.ok.sum(), stats.rejected.sum(), stats.failed.sum(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // распределения в формате .hgrm для HdrHistogram Plotter, чтобы сравнивать прогоны между собой
+    private void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey().key() + ".hgrm")))) {
+                entry.getValue().latency.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static final class OperationStats {
+
+        private final Recorder recorder = new Recorder(MAX_LATENCY, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private Histogram latency;
+
+        void record(long nanos, int status) {
+            recorder.recordValue(Math.min(MAX_LATENCY, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            if (status >= 200 && status < 300) {
+                ok.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        }
+
+        // отбрасывает всё, что набралось за прогрев
+        void reset() {
+            recorder.reset();
+            ok.reset();
+            rejected.reset();
+            failed.reset();
+        }
+
+        // вызывается после остановки потоков
+        void finish() {
+            latency = recorder.getIntervalHistogram();
+        }
+
+        void add(OperationStats other) {
+            latency.add(other.latency);
+            ok.add(other.ok.sum());
+            rejected.add(other.rejected.sum());
+            failed.add(other.failed.sum());
+        }
+    }
+}
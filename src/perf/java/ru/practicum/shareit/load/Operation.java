@@ -0,0 +1,108 @@
+package ru.practicum.shareit.load;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+// Операции сценария нагрузки, имя задаётся в --mix. Вещи выбираются с тем же перекосом, с каким
+// генератор раздавал им бронирования, пользователи - по активности владельцев и арендаторов.
+enum Operation {
+
+    ITEM("item") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/items/" + workload.item(random), workload.booker(random));
+        }
+    },
+    OWNER_ITEMS("owner-items") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/items?from=0&size=" + PAGE, workload.owner(random));
+        }
+    },
+    SEARCH("search") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/items/search?from=0&size=" + PAGE + "&text=" + encode(noun(random)),
+                    workload.booker(random));
+        }
+    },
+    SUGGEST("suggest") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            String noun = noun(random);
+            String prefix = noun.substring(0, Math.min(noun.length(), 2 + random.nextInt(3)));
+            return workload.get("/items/suggest?prefix=" + encode(prefix), workload.booker(random));
+        }
+    },
+    BOOKINGS("bookings") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/bookings?from=0&size=" + PAGE + "&state=" + state(random), workload.booker(random));
+        }
+    },
+    OWNER_BOOKINGS("owner-bookings") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/bookings/owner?from=0&size=" + PAGE + "&state=" + state(random),
+                    workload.owner(random));
+        }
+    },
+    REQUESTS("requests") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            return workload.get("/requests/all?from=0&size=" + PAGE, workload.booker(random));
+        }
+    },
+    // новые брони уходят за окно сгенерированных, пересечения возможны только у горячих вещей и дают 400
+    BOOK("book") {
+        @Override
+        HttpRequest request(Workload workload, Random random) {
+            LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES)
+                    .plusDays(100 + random.nextInt(3650))
+                    .plusMinutes(random.nextInt(24 * 60));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(48));
+            return workload.post("/bookings", workload.booker(random), String.format(
+                    "{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}", workload.item(random), start, end));
+        }
+    };
+
+    private static final int PAGE = 20;
+    private static final String[] STATES = {"ALL", "ALL", "ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    abstract HttpRequest request(Workload workload, Random random);
+
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция " + key);
+    }
+
+    private static String noun(Random random) {
+        return DatasetGenerator.NOUNS[random.nextInt(DatasetGenerator.NOUNS.length)];
+    }
+
+    private static String state(Random random) {
+        return STATES[random.nextInt(STATES.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Random;
+
+// Адрес сервиса и распределения, по которым операции выбирают вещи и пользователей.
+// Размеры берутся из DatasetGenerator с тем же числом бронирований, что и у сгенерированной базы.
+final class Workload {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final DatasetGenerator dataset;
+    private final Zipf items;
+    private final Zipf owners;
+    private final Zipf bookers;
+
+    Workload(String baseUrl, DatasetGenerator dataset) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.items = dataset.itemPopularity();
+        this.owners = dataset.ownerActivity();
+        this.bookers = dataset.bookerActivity();
+    }
+
+    int item(Random random) {
+        return 1 + items.sample(random);
+    }
+
+    int owner(Random random) {
+        return 1 + owners.sample(random);
+    }
+
+    int booker(Random random) {
+        return dataset.bookerId(bookers.sample(random));
+    }
+
+    HttpRequest get(String path, int userId) {
+        return builder(path, userId).GET().build();
+    }
+
+    HttpRequest post(String path, int userId, String json) {
+        return builder(path, userId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, int userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header(USER_HEADER, String.valueOf(userId));
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Бюджет SQL-операторов на один вызов сервиса, подключается через @Import(QueryBudget.Config.class):
+// queryBudget.select(2).update(1).call(() -> service.method(...))
+// Не объявленный тип операторов имеет бюджет 0, при превышении тест падает со списком выполненных операторов.
+@RequiredArgsConstructor
+public class QueryBudget {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    private static final QueryExecutionListener RECORDER = new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<String> statements = STATEMENTS.get();
+            if (statements == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                int times = execInfo.isBatch() ? Math.max(1, queryInfo.getParametersList().size()) : 1;
+                for (int i = 0; i < times; i++) {
+                    statements.add(queryInfo.getQuery());
+                }
+            }
+        }
+    };
+
+    private final EntityManager em;
+
+    public Limits select(int max) {
+        return new Limits().select(max);
+    }
+
+    public Limits insert(int max) {
+        return new Limits().insert(max);
+    }
+
+    public Limits update(int max) {
+        return new Limits().update(max);
+    }
+
+    public Limits delete(int max) {
+        return new Limits().delete(max);
+    }
+
+    public class Limits {
+
+        private final Map<QueryType, Integer> limits = new EnumMap<>(QueryType.class);
+
+        public Limits select(int max) {
+            limits.put(QueryType.SELECT, max);
+            return this;
+        }
+
+        public Limits insert(int max) {
+            limits.put(QueryType.INSERT, max);
+            return this;
+        }
+
+        public Limits update(int max) {
+            limits.put(QueryType.UPDATE, max);
+            return this;
+        }
+
+        public Limits delete(int max) {
+            limits.put(QueryType.DELETE, max);
+            return this;
+        }
+
+        public void run(Runnable action) {
+            call(() -> {
+                action.run();
+                return null;
+            });
+        }
+
+        public <T> T call(Supplier<T> action) {
+            // отложенные INSERT/UPDATE прошлых шагов не должны попасть в замер, а кэш сессии - спрятать SELECT
+            flush();
+            em.clear();
+            List<String> statements = new ArrayList<>();
+            STATEMENTS.set(statements);
+            T result;
+            try {
+                result = action.get();
+                flush();
+            } finally {
+                STATEMENTS.remove();
+            }
+            check(statements);
+            return result;
+        }
+
+        private void flush() {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                em.flush();
+            }
+        }
+
+        private void check(List<String> statements) {
+            Map<QueryType, Integer> counts = new EnumMap<>(QueryType.class);
+            for (String statement : statements) {
+                counts.merge(QueryUtils.getQueryType(statement), 1, Integer::sum);
+            }
+            StringBuilder exceeded = new StringBuilder();
+            for (QueryType type : List.of(QueryType.SELECT, QueryType.INSERT, QueryType.UPDATE, QueryType.DELETE)) {
+                int count = counts.getOrDefault(type, 0);
+                int max = limits.getOrDefault(type, 0);
+                if (count > max) {
+                    exceeded.append(String.format(" %s %d из %d;", type, count, max));
+                }
+            }
+            if (exceeded.length() == 0) {
+                return;
+            }
+            StringBuilder report = new StringBuilder("Превышен бюджет SQL-запросов:").append(exceeded);
+            for (int i = 0; i < statements.size(); i++) {
+                report.append(System.lineSeparator()).append(String.format("%3d. %s", i + 1,
+                        QueryUtils.removeCommentAndWhiteSpace(statements.get(i))));
+            }
+            throw new AssertionError(report.toString());
+        }
+    }
+
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        static BeanPostProcessor queryBudgetDataSourceProxy() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create((DataSource) bean)
+                                .name(beanName)
+                                .listener(RECORDER)
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @Bean
+        QueryBudget queryBudget(EntityManager em) {
+            return new QueryBudget(em);
+        }
+    }
+
+}
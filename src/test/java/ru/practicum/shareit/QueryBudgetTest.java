@@ -0,0 +1,114 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingItemDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// каждый сценарий укладывается в свой бюджет SQL-запросов, лишний ленивый SELECT роняет тест
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(QueryBudget.Config.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class QueryBudgetTest {
+
+    private final QueryBudget queryBudget;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+    private BookingDto booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(UserDto.builder().name("owner").email("owner@mail.com").build());
+        booker = userService.createUser(UserDto.builder().name("booker").email("booker@mail.com").build());
+        ItemRequestDto request = itemRequestService.addRequest(booker.getId(),
+                ItemRequestDto.builder().description("Нужна дрель").build());
+        item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Дрель").description("Ударная").available(true).requestId(request.getId()).build());
+        booking = bookingService.createBooking(booker.getId(), bookingFor(item, 1));
+    }
+
+    private BookingItemDto bookingFor(ItemDto item, int days) {
+        LocalDateTime start = LocalDateTime.now().plusDays(days);
+        return BookingItemDto.builder().start(start).end(start.plusHours(1)).itemId(item.getId()).build();
+    }
+
+    @Test
+    void createBooking_withinBudget() {
+        // букер, вещь вместе с владельцем, INSERT
+        queryBudget.select(2).insert(1)
+                .run(() -> bookingService.createBooking(booker.getId(), bookingFor(item, 2)));
+    }
+
+    @Test
+    void getBookingById_withinBudget() {
+        // пользователь, бронирование вместе с вещью и букером
+        BookingDto found = queryBudget.select(2)
+                .call(() -> bookingService.getBookingById(owner.getId(), booking.getId()));
+
+        assertThat(found.getItem().getName(), equalTo("Дрель"));
+        assertThat(found.getBooker().getId(), equalTo(booker.getId()));
+    }
+
+    @Test
+    void responseToBooking_withinBudget() {
+        // бронирование с вещью и букером, UPDATE статуса
+        queryBudget.select(1).update(1)
+                .run(() -> bookingService.responseToBooking(owner.getId(), booking.getId(), true));
+    }
+
+    @Test
+    void getBookingsForOwner_withinBudget() {
+        // пользователь, одна страница проекций
+        queryBudget.select(2)
+                .run(() -> bookingService.getBookingsForOwner(owner.getId(), "ALL", 0, 10));
+    }
+
+    @Test
+    void getItemCard_withinBudget() {
+        // вещь, комментарии с авторами, последнее и следующее бронирование
+        queryBudget.select(4)
+                .run(() -> itemService.getItemDtoBookingById(item.getId(), owner.getId()));
+    }
+
+    @Test
+    void getRequestFeed_withinBudget() {
+        // пользователь, страница запросов, вещи всех запросов одним IN
+        queryBudget.select(3)
+                .run(() -> itemRequestService.getAllRequests(owner.getId(), 0, 10));
+    }
+
+    @Test
+    void exceededBudget_listsStatements() {
+        AssertionError error = assertThrows(AssertionError.class, () -> queryBudget.select(1)
+                .run(() -> bookingService.getBookingById(owner.getId(), booking.getId())));
+
+        assertThat(error.getMessage(), startsWith("Превышен бюджет SQL-запросов: SELECT 2 из 1;"));
+        assertThat(error.getMessage(), containsString("1. select"));
+        assertThat(error.getMessage(), containsString("2. select"));
+    }
+
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaIndexTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    private String explain(String sql) {
+        return em.getEntityManager().createNativeQuery("EXPLAIN " + sql).getSingleResult().toString();
+    }
+
+    @Test
+    void migrations_createQueryIndexes() {
+        @SuppressWarnings("unchecked")
+        List<Object> indexes = em.getEntityManager()
+                .createNativeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = 'PUBLIC'")
+                .getResultList();
+
+        assertThat(indexes, hasItems((Object) "IDX_BOOKINGS_ITEM_START", "IDX_BOOKINGS_BOOKER_START", "IDX_ITEMS_OWNER",
+                "IDX_ITEMS_REQUEST", "IDX_COMMENTS_ITEM", "IDX_REQUESTS_REQUESTER_CREATED", "IDX_REQUESTS_CREATED", "IDX_BOOKINGS_ITEM_STATUS_START", "IDX_BOOKINGS_BOOKER_STATUS_START",
+                "IDX_BOOKINGS_OWNER_START", "IDX_BOOKINGS_OWNER_STATUS_START", "IDX_ITEMS_UPDATED"));
+    }
+
+    @Test
+    void lastAndNextBookingLookups_useItemStartIndex() {
+        String lastPlan = explain("SELECT * FROM bookings bk WHERE bk.item_id = 1 AND bk.status <> 'REJECTED' "
+                + "AND bk.start_date < CURRENT_TIMESTAMP ORDER BY bk.start_date DESC LIMIT 1");
+        String nextPlan = explain("SELECT * FROM bookings bk WHERE bk.item_id = 1 AND bk.status <> 'REJECTED' "
+                + "AND bk.start_date > CURRENT_TIMESTAMP ORDER BY bk.start_date LIMIT 1");
+
+        assertThat(lastPlan, containsString("IDX_BOOKINGS_ITEM_START"));
+        assertThat(nextPlan, containsString("IDX_BOOKINGS_ITEM_START"));
+    }
+
+    @Test
+    void lastAndNextBookingsForItemList_useItemIndex() {
+        String plan = explain("SELECT id FROM (SELECT bk.id, ROW_NUMBER() OVER ("
+                + "PARTITION BY bk.item_id, bk.start_date < CURRENT_TIMESTAMP "
+                + "ORDER BY CASE WHEN bk.start_date < CURRENT_TIMESTAMP THEN bk.start_date END DESC, "
+                + "bk.start_date ASC) AS rn FROM bookings bk WHERE bk.item_id IN (1, 2) "
+                + "AND bk.status <> 'REJECTED' AND bk.start_date <> CURRENT_TIMESTAMP) ranked WHERE ranked.rn = 1");
+
+        assertThat(plan, containsString("IDX_BOOKINGS_ITEM_"));
+        assertThat(plan, not(containsString("tableScan")));
+    }
+
+    @Test
+    void statusLookups_doNotScanTables() {
+        String itemPlan = explain("SELECT * FROM bookings bk WHERE bk.item_id = 1 AND bk.status = 'WAITING' "
+                + "ORDER BY bk.start_date DESC");
+        String ownerPlan = explain("SELECT * FROM bookings bk WHERE bk.owner_id = 1 AND bk.status = 'WAITING' "
+                + "ORDER BY bk.start_date DESC");
+        String bookerPlan = explain("SELECT * FROM bookings bk WHERE bk.booker_id = 1 AND bk.status = 'WAITING' "
+                + "ORDER BY bk.start_date DESC");
+
+        assertThat(itemPlan, containsString("IDX_BOOKINGS_ITEM_STATUS_START"));
+        assertThat(ownerPlan, containsString("IDX_BOOKINGS_OWNER_STATUS_START"));
+        assertThat(bookerPlan, containsString("IDX_BOOKINGS_BOOKER_STATUS_START"));
+        assertThat(itemPlan, not(containsString("tableScan")));
+        assertThat(ownerPlan, not(containsString("tableScan")));
+        assertThat(bookerPlan, not(containsString("tableScan")));
+    }
+
+    @Test
+    void ownerLookups_useOwnerAndRequestIndexes() {
+        assertThat(explain("SELECT * FROM items it WHERE it.owner_id = 1"), containsString("IDX_ITEMS_OWNER"));
+        assertThat(explain("SELECT * FROM items it WHERE it.request_id IN (1, 2)"),
+                containsString("IDX_ITEMS_REQUEST"));
+        assertThat(explain("SELECT * FROM comments cm WHERE cm.item_id IN (1, 2)"),
+                containsString("IDX_COMMENTS_ITEM"));
+    }
+
+    @Test
+    void listingLookups_doNotScanTables() {
+        String[] queries = {
+            "SELECT * FROM bookings bk WHERE bk.item_id IN (1, 2) AND bk.status <> 'REJECTED'",
+            "SELECT * FROM bookings bk WHERE bk.booker_id = 1 ORDER BY bk.start_date DESC",
+            "SELECT * FROM bookings bk WHERE bk.owner_id = 1 ORDER BY bk.start_date DESC",
+            "SELECT * FROM requests rq WHERE rq.requester_id = 1 ORDER BY rq.created DESC"
+        };
+
+        for (String query : queries) {
+            assertThat(explain(query), not(containsString("tableScan")));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -64,8 +65,8 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id", is(bookingDto.getId()), Integer.class))
                 .andExpect(jsonPath("$.start", is(bookingDto.getStart().toString()), LocalDateTime.class))
                 .andExpect(jsonPath("$.end", is(bookingDto.getEnd().toString()), LocalDateTime.class))
-                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), Item.class))
-                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), User.class))
+                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), BookingDto.BookedItem.class))
+                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), BookingDto.Booker.class))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -86,8 +87,8 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id", is(bookingDto.getId()), Integer.class))
                 .andExpect(jsonPath("$.start", is(bookingDto.getStart().toString()), LocalDateTime.class))
                 .andExpect(jsonPath("$.end", is(bookingDto.getEnd().toString()), LocalDateTime.class))
-                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), Item.class))
-                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), User.class))
+                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), BookingDto.BookedItem.class))
+                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), BookingDto.Booker.class))
                 .andExpect(jsonPath("$.status", is(bookingDto.getStatus().toString()), BookingStatus.class))
                 .andReturn()
                 .getResponse()
@@ -107,8 +108,8 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id", is(bookingDto.getId()), Integer.class))
                 .andExpect(jsonPath("$.start", is(bookingDto.getStart().toString()), LocalDateTime.class))
                 .andExpect(jsonPath("$.end", is(bookingDto.getEnd().toString()), LocalDateTime.class))
-                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), Item.class))
-                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), User.class))
+                .andExpect(jsonPath("$.item", is(bookingDto.getItem()), BookingDto.BookedItem.class))
+                .andExpect(jsonPath("$.booker", is(bookingDto.getBooker()), BookingDto.Booker.class))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -127,8 +128,8 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Integer.class))
                 .andExpect(jsonPath("$[0].start", is(bookingDto.getStart().toString()), LocalDateTime.class))
                 .andExpect(jsonPath("$[0].end", is(bookingDto.getEnd().toString()), LocalDateTime.class))
-                .andExpect(jsonPath("$[0].item", is(bookingDto.getItem()), Item.class))
-                .andExpect(jsonPath("$[0].booker", is(bookingDto.getBooker()), User.class));
+                .andExpect(jsonPath("$[0].item", is(bookingDto.getItem()), BookingDto.BookedItem.class))
+                .andExpect(jsonPath("$[0].booker", is(bookingDto.getBooker()), BookingDto.Booker.class));
 
         verify(bookingService).getBookingsForUser(anyInt(), anyString(), anyInt(), anyInt());
     }
@@ -144,10 +145,50 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Integer.class))
                 .andExpect(jsonPath("$[0].start", is(bookingDto.getStart().toString()), LocalDateTime.class))
                 .andExpect(jsonPath("$[0].end", is(bookingDto.getEnd().toString()), LocalDateTime.class))
-                .andExpect(jsonPath("$[0].item", is(bookingDto.getItem()), Item.class))
-                .andExpect(jsonPath("$[0].booker", is(bookingDto.getBooker()), User.class));
+                .andExpect(jsonPath("$[0].item", is(bookingDto.getItem()), BookingDto.BookedItem.class))
+                .andExpect(jsonPath("$[0].booker", is(bookingDto.getBooker()), BookingDto.Booker.class));
 
         verify(bookingService).getBookingsForOwner(anyInt(), anyString(), anyInt(), anyInt());
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void getBookingsForOwner_fullPage_returnNextCursor() {
+        when(bookingService.getBookingsForOwner(anyInt(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, BookingCursor.of(bookingDto).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingsForUser_withCursor_returnBookingList() {
+        String cursor = BookingCursor.of(bookingDto).encode();
+        when(bookingService.getBookingsForUserAfter(1, "ALL", cursor, 10)).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Integer.class));
+
+        verify(bookingService).getBookingsForUserAfter(1, "ALL", cursor, 10);
+    }
+
+    @SneakyThrows
+    @Test
+    void countBookingsForOwner_returnCount() {
+        when(bookingService.countBookingsForOwner(1, "WAITING")).thenReturn(3L);
+
+        mockMvc.perform(get("/bookings/owner/count")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "WAITING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(3)));
+    }
+
+}
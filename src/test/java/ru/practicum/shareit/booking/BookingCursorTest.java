@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingCursorTest {
+
+    @Test
+    void encodeDecode_returnSameCursor() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 2, 3, 4, 5, 6000);
+
+        BookingCursor cursor = BookingCursor.decode(new BookingCursor(start, 42).encode());
+
+        assertEquals(start, cursor.getStart());
+        assertEquals(42, cursor.getId());
+    }
+
+    @Test
+    void decode_wrongCursor_returnException() {
+        ValidationException wrongCursor = assertThrows(
+                ValidationException.class,
+                () -> BookingCursor.decode("not a cursor"));
+        assertEquals("Некорректный курсор", wrongCursor.getMessage());
+    }
+
+}
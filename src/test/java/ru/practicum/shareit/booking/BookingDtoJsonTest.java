@@ -30,7 +30,8 @@ public class BookingDtoJsonTest {
     @SneakyThrows
     @Test
     void testBookingDto_returnBookingDto() {
-        BookingDto bookingDto = BookingDto.builder().start(start).end(end).item(item).booker(user).status(BookingStatus.WAITING).build();
+        BookingDto bookingDto = BookingDto.builder().start(start).end(end).item(new BookingDto.BookedItem(item.getId(), item.getName()))
+                .booker(new BookingDto.Booker(user.getId())).status(BookingStatus.WAITING).build();
         JsonContent<BookingDto> result = jsonBookingDto.write(bookingDto);
 
         assertThat(result).hasJsonPath("$.id");
@@ -42,7 +43,10 @@ public class BookingDtoJsonTest {
         assertThat(result).extractingJsonPathStringValue("$.start").isEqualTo(start.toString());
         assertThat(result).extractingJsonPathStringValue("$.end").isEqualTo(end.toString());
         assertThat(result).extractingJsonPathNumberValue("$.item.id").isEqualTo(item.getId());
+        assertThat(result).extractingJsonPathStringValue("$.item.name").isEqualTo(item.getName());
+        assertThat(result).doesNotHaveJsonPath("$.item.description");
         assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(user.getId());
+        assertThat(result).doesNotHaveJsonPath("$.booker.email");
         assertThat(result).extractingJsonPathStringValue("$.status").isEqualTo("WAITING");
     }
 
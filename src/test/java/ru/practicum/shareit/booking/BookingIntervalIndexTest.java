@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void reserve_loadsActiveBookingsOnce() {
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of(
+                new BookingItemDto(1, start, start.plusHours(2), 1, 2, BookingStatus.APPROVED)));
+
+        Optional<Booking> overlapping = bookingIntervalIndex.reserve(1, start.plusHours(1), start.plusHours(3),
+                Booking::new);
+        Optional<Booking> free = bookingIntervalIndex.reserve(1, start.plusHours(2), start.plusHours(3),
+                () -> Booking.builder().id(2).build());
+
+        assertThat(overlapping.isPresent(), is(false));
+        assertThat(free.isPresent(), is(true));
+        assertThat(bookingIntervalIndex.isFree(1, start.plusHours(2), start.plusHours(4)), is(false));
+        verify(bookingRepository, times(1)).findActiveBookingsForItem(eq(1), any());
+    }
+
+    @Test
+    void release_withoutTransaction_freesInterval() {
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of(
+                new BookingItemDto(1, start, start.plusHours(2), 1, 2, BookingStatus.WAITING)));
+
+        assertThat(bookingIntervalIndex.isFree(1, start, start.plusHours(2)), is(false));
+
+        bookingIntervalIndex.release(1, start, 1);
+
+        assertThat(bookingIntervalIndex.isFree(1, start, start.plusHours(2)), is(true));
+    }
+
+    @Test
+    void isFree_dropsFinishedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of(
+                new BookingItemDto(1, now.minusHours(2), now.minusHours(1), 1, 2, BookingStatus.APPROVED),
+                new BookingItemDto(2, now.minusHours(1), now.plusHours(1), 1, 2, BookingStatus.APPROVED)));
+
+        assertThat(bookingIntervalIndex.isFree(1, now.minusHours(2), now.minusHours(1)), is(true));
+        assertThat(bookingIntervalIndex.isFree(1, now.minusHours(1), now), is(false));
+    }
+}
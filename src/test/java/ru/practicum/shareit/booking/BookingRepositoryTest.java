@@ -14,11 +14,12 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.*;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -43,11 +44,10 @@ class BookingRepositoryTest {
     void setUp() {
         user1 = userRepository.save(new User(1, "name", "e@mail.ya"));
         user2 = userRepository.save(new User(2, "name2", "e2@mail.ya"));
-        item = itemRepository.save(new Item(1, "name", "desc", true));
-        item.setOwner(user2);
+        item = itemRepository.save(new Item(1, "name", "desc", user2, true));
         booking = new Booking(1,
-                LocalDateTime.now().plusHours(2),
-                LocalDateTime.now().plusHours(3),
+                LocalDateTime.now().plusHours(2).truncatedTo(ChronoUnit.MICROS),
+                LocalDateTime.now().plusHours(3).truncatedTo(ChronoUnit.MICROS),
                 item, user1, BookingStatus.WAITING);
         page = PageRequest.of(0, 5);
     }
@@ -63,13 +63,13 @@ class BookingRepositoryTest {
     void getBookingsForOwner_returnOwnerBookingList() {
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.getBookingsForOwner(user2.getId(), page).toList();
+        List<BookingDto> bookings = bookingRepository.getBookingsForOwner(user2.getId(), page).toList();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
         assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
         assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
     }
 
@@ -77,46 +77,46 @@ class BookingRepositoryTest {
     void getBookingsForOwnerByStatus_returnOwnerBookingList() {
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.getBookingsForOwnerByStatus(user2.getId(), "WAITING", page).toList();
+        List<BookingDto> bookings = bookingRepository.getBookingsForOwnerByStatus(user2.getId(), BookingStatus.WAITING, page).toList();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
         assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
         assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
     }
 
     @Test
     void getBookingsForOwnerCurrent_returnOwnerBookingList() throws InterruptedException {
-        booking.setStart(LocalDateTime.now().plusNanos(100_000_000));
+        booking.setStart(LocalDateTime.now().plusNanos(100_000_000).truncatedTo(ChronoUnit.MICROS));
         bookingRepository.save(booking);
         Thread.sleep(100);
 
-        List<Booking> bookings = bookingRepository.getBookingsForOwnerCurrent(user2.getId(), LocalDateTime.now(), LocalDateTime.now(), page).toList();
+        List<BookingDto> bookings = bookingRepository.getBookingsForOwnerCurrent(user2.getId(), LocalDateTime.now(), LocalDateTime.now(), page).toList();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
         assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
         assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
     }
 
     @Test
     void getBookingsForOwnerPast_returnOwnerBookingList() throws InterruptedException {
-        booking.setStart(LocalDateTime.now().plusNanos(100_000_000));
-        booking.setEnd(LocalDateTime.now().plusNanos(200_000_000));
+        booking.setStart(LocalDateTime.now().plusNanos(100_000_000).truncatedTo(ChronoUnit.MICROS));
+        booking.setEnd(LocalDateTime.now().plusNanos(200_000_000).truncatedTo(ChronoUnit.MICROS));
         bookingRepository.save(booking);
         Thread.sleep(300);
 
-        List<Booking> bookings = bookingRepository.getBookingsForOwnerPast(user2.getId(), LocalDateTime.now(), page).toList();
+        List<BookingDto> bookings = bookingRepository.getBookingsForOwnerPast(user2.getId(), LocalDateTime.now(), page).toList();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
         assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
         assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
     }
 
@@ -124,44 +124,134 @@ class BookingRepositoryTest {
     void getBookingsForOwnerFuture_returnOwnerBookingList() {
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.getBookingsForOwnerFuture(user2.getId(), LocalDateTime.now(), page).toList();
+        List<BookingDto> bookings = bookingRepository.getBookingsForOwnerFuture(user2.getId(), LocalDateTime.now(), page).toList();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
         assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
         assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
     }
 
     @Test
-    void findLastBookingForItem_returnItemBookingList() throws InterruptedException {
-        booking.setStart(LocalDateTime.now().plusNanos(100_000_000));
+    void getBookingsForBooker_returnBookerBookingList() {
+        Booking savedBooking = bookingRepository.save(booking);
+
+        List<BookingDto> bookings = bookingRepository.getBookingsForBooker(user1.getId(), page).toList();
+
+        assertThat(bookings, hasSize(1));
+        assertThat(bookings.get(0).getId(), equalTo(savedBooking.getId()));
+        assertThat(bookings.get(0).getItem(), equalTo(new BookingDto.BookedItem(item.getId(), item.getName())));
+        assertThat(bookings.get(0).getBooker(), equalTo(new BookingDto.Booker(user1.getId())));
+        assertThat(bookingRepository.getBookingsForBooker(user2.getId(), page).toList(), empty());
+    }
+
+    @Test
+    void getBookingsForOwnerAfter_returnBookingsAfterCursor() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking first = bookingRepository.save(new Booking(null, start.plusHours(2), start.plusHours(3),
+                item, user1, BookingStatus.WAITING));
+        Booking second = bookingRepository.save(new Booking(null, start, start.plusHours(1),
+                item, user1, BookingStatus.WAITING));
+        Booking third = bookingRepository.save(new Booking(null, start, start.plusHours(1),
+                item, user1, BookingStatus.WAITING));
+
+        List<BookingDto> firstPage = bookingRepository.getBookingsForOwnerAfter(user2.getId(),
+                start.plusYears(1), Integer.MAX_VALUE, PageRequest.of(0, 2));
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDto> secondPage = bookingRepository.getBookingsForOwnerAfter(user2.getId(),
+                last.getStart(), last.getId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage, contains(hasProperty("id", equalTo(first.getId())), hasProperty("id", equalTo(third.getId()))));
+        assertThat(secondPage, contains(hasProperty("id", equalTo(second.getId()))));
+    }
+
+    @Test
+    void getBookingsForBookerByStatusAfter_returnBookingsAfterCursor() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking first = bookingRepository.save(new Booking(null, start.plusHours(2), start.plusHours(3),
+                item, user1, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, start.plusHours(1), start.plusHours(2),
+                item, user1, BookingStatus.REJECTED));
+        Booking third = bookingRepository.save(new Booking(null, start, start.plusHours(1),
+                item, user1, BookingStatus.WAITING));
+        em.flush();
+
+        List<BookingDto> bookings = bookingRepository.getBookingsForBookerByStatusAfter(user1.getId(),
+                BookingStatus.WAITING, first.getStart(), first.getId(), PageRequest.of(0, 5));
+
+        assertThat(bookings, contains(hasProperty("id", equalTo(third.getId()))));
+    }
+
+    @Test
+    void countBookingsForOwnerByStatus_returnCount() {
         bookingRepository.save(booking);
+
+        assertThat(bookingRepository.countBookingsForOwnerByStatus(user2.getId(), BookingStatus.WAITING), equalTo(1L));
+        assertThat(bookingRepository.countBookingsForOwnerByStatus(user2.getId(), BookingStatus.REJECTED), equalTo(0L));
+    }
+
+    @Test
+    void findLastBookingForItem_returnItemBooking() throws InterruptedException {
+        booking.setStart(LocalDateTime.now().plusNanos(100_000_000));
+        Booking savedBooking = bookingRepository.save(booking);
         Thread.sleep(200);
 
-        List<Booking> bookings = bookingRepository.findLastBookingForItem(item.getId(), LocalDateTime.now());
+        Optional<BookingItemDto> lastBooking = bookingRepository.findLastBookingForItem(item.getId(), LocalDateTime.now());
 
-        assertThat(bookings, hasSize(1));
-        assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
-        assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
-        assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
+        assertThat(lastBooking.isPresent(), equalTo(true));
+        assertThat(lastBooking.get().getId(), equalTo(savedBooking.getId()));
+        assertThat(lastBooking.get().getItemId(), equalTo(item.getId()));
+        assertThat(lastBooking.get().getBookerId(), equalTo(user1.getId()));
+        assertThat(lastBooking.get().getStatus(), equalTo(booking.getStatus().toString()));
     }
 
     @Test
-    void findNextBookingForItem_returnItemBookingList() {
+    void findNextBookingForItem_returnItemBooking() {
+        Booking savedBooking = bookingRepository.save(booking);
+
+        Optional<BookingItemDto> nextBooking = bookingRepository.findNextBookingForItem(item.getId(), LocalDateTime.now());
+
+        assertThat(nextBooking.isPresent(), equalTo(true));
+        assertThat(nextBooking.get().getId(), equalTo(savedBooking.getId()));
+        assertThat(nextBooking.get().getItemId(), equalTo(item.getId()));
+        assertThat(nextBooking.get().getBookerId(), equalTo(user1.getId()));
+        assertThat(nextBooking.get().getStatus(), equalTo(booking.getStatus().toString()));
+    }
+
+    @Test
+    void findNextBookingForItem_skipRejectedBooking() {
+        booking.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.findNextBookingForItem(item.getId(), LocalDateTime.now());
+        Optional<BookingItemDto> nextBooking = bookingRepository.findNextBookingForItem(item.getId(), LocalDateTime.now());
 
-        assertThat(bookings, hasSize(1));
-        assertThat(bookings.get(0).getStart(), equalTo(booking.getStart()));
-        assertThat(bookings.get(0).getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookings.get(0).getItem(), equalTo(booking.getItem()));
-        assertThat(bookings.get(0).getBooker(), equalTo(booking.getBooker()));
-        assertThat(bookings.get(0).getStatus(), equalTo(booking.getStatus()));
+        assertThat(nextBooking.isPresent(), equalTo(false));
+    }
+
+    @Test
+    void findLastAndNextBookingsForItems_returnOneBookingPerSide() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Booking oldBooking = bookingRepository.save(new Booking(null, now.minusHours(5), now.minusHours(4),
+                item, user1, BookingStatus.APPROVED));
+        Booking lastBooking = bookingRepository.save(new Booking(null, now.minusHours(3), now.minusHours(2),
+                item, user1, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1),
+                item, user1, BookingStatus.REJECTED));
+        Booking nextBooking = bookingRepository.save(new Booking(null, now.plusHours(2), now.plusHours(3),
+                item, user1, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, now.plusHours(4), now.plusHours(5),
+                item, user1, BookingStatus.APPROVED));
+        em.flush();
+        em.clear();
+
+        List<BookingItemDto> bookings = bookingRepository.findLastAndNextBookingsForItems(List.of(item.getId()), now);
+
+        assertThat(bookings, hasSize(2));
+        assertThat(bookings, containsInAnyOrder(BookingMapper.toBookingItemDto(lastBooking),
+                BookingMapper.toBookingItemDto(nextBooking)));
+        assertThat(bookings, not(hasItem(BookingMapper.toBookingItemDto(oldBooking))));
     }
 
     @Test
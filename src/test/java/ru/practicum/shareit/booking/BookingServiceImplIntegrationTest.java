@@ -5,7 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.QueryBudget;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.user.UserDto;
@@ -13,6 +15,7 @@ import ru.practicum.shareit.user.UserService;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -20,6 +23,7 @@ import static org.hamcrest.Matchers.*;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(QueryBudget.Config.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class BookingServiceImplIntegrationTest {
 
@@ -28,6 +32,7 @@ class BookingServiceImplIntegrationTest {
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final QueryBudget queryBudget;
     private UserDto userDto1;
     private UserDto userDto2;
     private BookingDto bookingDto;
@@ -41,15 +46,18 @@ class BookingServiceImplIntegrationTest {
                 UserDto.builder().name("name2").email("e2@mail.com").build());
         ItemDto itemDto = itemService.addItem(
                 userDto1.getId(), ItemDto.builder().name("name").description("desc").available(true).build());
+        // бюджет очищает контекст, и сравниваются значения, прочитанные из базы с точностью до микросекунд
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         bookingItemDto = new BookingItemDto(1,
-                LocalDateTime.now().plusNanos(100_000_000),
-                LocalDateTime.now().plusNanos(200_000_000),
+                now.plusHours(1),
+                now.plusHours(2),
                 itemDto.getId(), userDto2.getId(), "APPROVED");
     }
 
     @Test
     void createBooking_returnBooking() {
-        bookingDto = bookingService.createBooking(userDto2.getId(), bookingItemDto);
+        bookingDto = queryBudget.select(5).insert(1)
+                .call(() -> bookingService.createBooking(userDto2.getId(), bookingItemDto));
         int id = bookingDto.getId();
         Booking booking = bookingRepository.getReferenceById(id);
 
@@ -66,13 +74,14 @@ class BookingServiceImplIntegrationTest {
         int id = bookingDto.getId();
         Booking booking = bookingRepository.getReferenceById(id);
 
-        BookingDto approvedBookingDto = bookingService.responseToBooking(userDto1.getId(), id, true);
+        BookingDto approvedBookingDto = queryBudget.select(1).update(1)
+                .call(() -> bookingService.responseToBooking(userDto1.getId(), id, true));
 
         assertThat(booking.getId(), notNullValue());
         assertThat(booking.getStart(), equalTo(approvedBookingDto.getStart()));
         assertThat(booking.getEnd(), equalTo(approvedBookingDto.getEnd()));
-        assertThat(booking.getItem(), equalTo(approvedBookingDto.getItem()));
-        assertThat(booking.getBooker(), equalTo(approvedBookingDto.getBooker()));
+        assertThat(booking.getItem().getId(), equalTo(approvedBookingDto.getItem().getId()));
+        assertThat(booking.getBooker().getId(), equalTo(approvedBookingDto.getBooker().getId()));
         assertThat(BookingStatus.APPROVED, equalTo(approvedBookingDto.getStatus()));
     }
 
@@ -82,13 +91,14 @@ class BookingServiceImplIntegrationTest {
         int id = bookingDto.getId();
         Booking booking = bookingRepository.getReferenceById(id);
 
-        BookingDto bookingById = bookingService.getBookingById(userDto1.getId(), id);
+        BookingDto bookingById = queryBudget.select(2)
+                .call(() -> bookingService.getBookingById(userDto1.getId(), id));
 
         assertThat(bookingById.getId(), notNullValue());
         assertThat(bookingById.getStart(), equalTo(booking.getStart()));
         assertThat(bookingById.getEnd(), equalTo(booking.getEnd()));
-        assertThat(bookingById.getItem(), equalTo(booking.getItem()));
-        assertThat(bookingById.getBooker(), equalTo(booking.getBooker()));
+        assertThat(bookingById.getItem().getId(), equalTo(booking.getItem().getId()));
+        assertThat(bookingById.getBooker().getId(), equalTo(booking.getBooker().getId()));
         assertThat(bookingById.getStatus(), equalTo(booking.getStatus()));
     }
 
@@ -98,9 +108,12 @@ class BookingServiceImplIntegrationTest {
         int from = 0;
         int size = 5;
 
-        List<BookingDto> allListBookingDto = bookingService.getBookingsForUser(userDto2.getId(), "ALL", from, size);
-        List<BookingDto> futureListBookingDto = bookingService.getBookingsForUser(userDto2.getId(), "FUTURE", from, size);
-        List<BookingDto> statusListBookingDto = bookingService.getBookingsForUser(userDto2.getId(), "WAITING", from, size);
+        List<BookingDto> allListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForUser(userDto2.getId(), "ALL", from, size));
+        List<BookingDto> futureListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForUser(userDto2.getId(), "FUTURE", from, size));
+        List<BookingDto> statusListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForUser(userDto2.getId(), "WAITING", from, size));
 
         assertThat(allListBookingDto, hasSize(1));
         assertThat(statusListBookingDto, hasSize(1));
@@ -122,9 +135,12 @@ class BookingServiceImplIntegrationTest {
         int from = 0;
         int size = 5;
 
-        List<BookingDto> allListBookingDto = bookingService.getBookingsForOwner(userDto1.getId(), "ALL", from, size);
-        List<BookingDto> futureListBookingDto = bookingService.getBookingsForOwner(userDto1.getId(), "FUTURE", from, size);
-        List<BookingDto> statusListBookingDto = bookingService.getBookingsForOwner(userDto1.getId(), "WAITING", from, size);
+        List<BookingDto> allListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForOwner(userDto1.getId(), "ALL", from, size));
+        List<BookingDto> futureListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForOwner(userDto1.getId(), "FUTURE", from, size));
+        List<BookingDto> statusListBookingDto = queryBudget.select(2)
+                .call(() -> bookingService.getBookingsForOwner(userDto1.getId(), "WAITING", from, size));
 
         assertThat(allListBookingDto, hasSize(1));
         assertThat(statusListBookingDto, hasSize(1));
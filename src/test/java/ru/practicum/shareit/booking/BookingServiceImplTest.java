@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,7 +21,7 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,6 +37,12 @@ class BookingServiceImplTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemAvailabilityCalendar itemAvailabilityCalendar;
+    @Mock
+    private ItemOccupancyIndex itemOccupancyIndex;
     @InjectMocks
     private BookingServiceImpl bookingService;
     private User user1;
@@ -62,12 +69,43 @@ class BookingServiceImplTest {
         BookingItemDto bookingItemDto = BookingMapper.toBookingItemDto(booking);
         when(userService.getUserById(anyInt())).thenReturn(user2);
         when(itemService.getItemById(any())).thenReturn(item);
+        reserveFreely();
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto newBookingDto = bookingService.createBooking(1, bookingItemDto);
 
         assertEquals(bookingDto, newBookingDto);
         verify(bookingRepository).save(booking);
+        verify(itemAvailabilityCalendar).occupy(item.getId(), booking.getStart(), booking.getEnd());
+        verify(itemOccupancyIndex).occupy(item.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    @Test
+    void createBooking_copiesItemOwner() {
+        BookingItemDto bookingItemDto = BookingMapper.toBookingItemDto(booking);
+        ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
+        when(userService.getUserById(anyInt())).thenReturn(user2);
+        when(itemService.getItemById(any())).thenReturn(item);
+        reserveFreely();
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        bookingService.createBooking(2, bookingItemDto);
+
+        verify(bookingRepository).save(captor.capture());
+        assertEquals(user1, captor.getValue().getOwner());
+    }
+
+    @Test
+    void createBooking_overlap_returnException() {
+        BookingItemDto bookingItemDto = BookingMapper.toBookingItemDto(booking);
+        when(userService.getUserById(anyInt())).thenReturn(user2);
+        when(itemService.getItemById(any())).thenReturn(item);
+        when(bookingIntervalIndex.reserve(anyInt(), any(), any(), any())).thenReturn(Optional.empty());
+
+        assertThrows(
+                ValidationException.class,
+                () -> bookingService.createBooking(2, bookingItemDto));
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -97,7 +135,7 @@ class BookingServiceImplTest {
 
     @Test
     void responseToBooking_returnApprovedBooking() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto newBookingDto = bookingService.responseToBooking(1, 1, true);
@@ -110,7 +148,7 @@ class BookingServiceImplTest {
 
     @Test
     void responseToBooking_returnRejectedBooking() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto newBookingDto = bookingService.responseToBooking(1, 1, false);
@@ -119,11 +157,14 @@ class BookingServiceImplTest {
 
         assertEquals(bookingDto, newBookingDto);
         verify(bookingRepository).save(booking);
+        verify(bookingIntervalIndex).release(item.getId(), booking.getStart(), booking.getId());
+        verify(itemAvailabilityCalendar).release(item.getId(), booking.getStart(), booking.getEnd());
+        verify(itemOccupancyIndex).release(item.getId(), booking.getStart(), booking.getEnd());
     }
 
     @Test
     void responseToBooking_notOwnerResponse_returnException() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
 
         NotFoundException notOwnerResponse = assertThrows(
                 NotFoundException.class,
@@ -134,7 +175,7 @@ class BookingServiceImplTest {
 
     @Test
     void responseToBooking_repeatBooking_returnException() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         bookingService.responseToBooking(1, 1, true);
@@ -146,9 +187,36 @@ class BookingServiceImplTest {
         verify(bookingRepository, atMostOnce()).save(any());
     }
 
+    @Test
+    void responseToBooking_approveRejected_returnException() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
+
+        ValidationException approveRejected = assertThrows(
+                ValidationException.class,
+                () -> bookingService.responseToBooking(1, 1, true));
+        assertEquals("Бронирование уже отклонено", approveRejected.getMessage());
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(bookingIntervalIndex, itemAvailabilityCalendar, itemOccupancyIndex);
+    }
+
+    @Test
+    void responseToBooking_rejectRejected_returnException() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
+
+        ValidationException rejectRejected = assertThrows(
+                ValidationException.class,
+                () -> bookingService.responseToBooking(1, 1, false));
+        assertEquals("Бронирование уже отклонено", rejectRejected.getMessage());
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(bookingIntervalIndex, itemAvailabilityCalendar, itemOccupancyIndex);
+    }
+
     @Test
     void getBookingById_returnBookingDto() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
         when(userService.getUserById(anyInt())).thenReturn(user1);
 
         BookingDto newBookingDto = bookingService.getBookingById(1, 1);
@@ -158,7 +226,7 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingById_wrongUser_returnException() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyInt())).thenReturn(Optional.of(booking));
         when(userService.getUserById(anyInt())).thenReturn(user1);
 
         NotFoundException repeatBooking = assertThrows(
@@ -171,16 +239,16 @@ class BookingServiceImplTest {
     void getBookingsForUser_returnBookingsList() {
         int from = 0;
         int size = 5;
-        List<Booking> bookingList = List.of(booking);
+        List<BookingDto> listBookingDto = List.of(bookingDto);
         PageRequest page = PageRequest.of(from, size);
-        Page<Booking> bookingPage = new PageImpl<>(bookingList);
+        Page<BookingDto> bookingPage = new PageImpl<>(listBookingDto);
 
         when(userService.getUserById(anyInt())).thenReturn(user1);
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyInt(), eq(page))).thenReturn(bookingPage);
-        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyInt(), any(), any(), eq(page))).thenReturn(bookingPage);
-        when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(anyInt(), any(), eq(page))).thenReturn(bookingPage);
-        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(anyInt(), any(), eq(page))).thenReturn(bookingPage);
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(anyInt(), any(), eq(page))).thenReturn(bookingPage);
+        when(bookingRepository.getBookingsForBooker(anyInt(), eq(page))).thenReturn(bookingPage);
+        when(bookingRepository.getBookingsForBookerCurrent(anyInt(), any(), any(), eq(page))).thenReturn(bookingPage);
+        when(bookingRepository.getBookingsForBookerPast(anyInt(), any(), eq(page))).thenReturn(bookingPage);
+        when(bookingRepository.getBookingsForBookerFuture(anyInt(), any(), eq(page))).thenReturn(bookingPage);
+        when(bookingRepository.getBookingsForBookerByStatus(anyInt(), any(), eq(page))).thenReturn(bookingPage);
 
         List<BookingDto> allListBookingDto = bookingService.getBookingsForUser(1, "ALL", from, size);
         List<BookingDto> currentListBookingDto = bookingService.getBookingsForUser(1, "CURRENT", from, size);
@@ -188,10 +256,6 @@ class BookingServiceImplTest {
         List<BookingDto> futureListBookingDto = bookingService.getBookingsForUser(1, "FUTURE", from, size);
         List<BookingDto> statusListBookingDto = bookingService.getBookingsForUser(1, "WAITING", from, size);
 
-        List<BookingDto> listBookingDto = bookingList.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
-
         assertEquals(allListBookingDto, listBookingDto);
         assertEquals(currentListBookingDto, listBookingDto);
         assertEquals(pastListBookingDto, listBookingDto);
@@ -218,9 +282,9 @@ class BookingServiceImplTest {
     void getBookingsForOwner_returnBookingsList() {
         int from = 0;
         int size = 5;
-        List<Booking> bookingList = List.of(booking);
+        List<BookingDto> listBookingDto = List.of(bookingDto);
         PageRequest page = PageRequest.of(from, size);
-        Page<Booking> bookingPage = new PageImpl<>(bookingList);
+        Page<BookingDto> bookingPage = new PageImpl<>(listBookingDto);
 
         when(userService.getUserById(anyInt())).thenReturn(user1);
         when(bookingRepository.getBookingsForOwner(anyInt(), eq(page))).thenReturn(bookingPage);
@@ -235,10 +299,6 @@ class BookingServiceImplTest {
         List<BookingDto> futureListBookingDto = bookingService.getBookingsForOwner(1, "FUTURE", from, size);
         List<BookingDto> statusListBookingDto = bookingService.getBookingsForOwner(1, "WAITING", from, size);
 
-        List<BookingDto> listBookingDto = bookingList.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
-
         assertEquals(allListBookingDto, listBookingDto);
         assertEquals(currentListBookingDto, listBookingDto);
         assertEquals(pastListBookingDto, listBookingDto);
@@ -261,4 +321,80 @@ class BookingServiceImplTest {
         assertEquals("Unknown state: UNSUPPORTED_STATUS", wrongState.getMessage());*/
     }
 
-}
\ No newline at end of file
+    @Test
+    void getBookingsForUserAfter_returnBookingsList() {
+        int size = 5;
+        LocalDateTime cursorStart = LocalDateTime.now();
+        String cursor = new BookingCursor(cursorStart, 7).encode();
+        PageRequest page = PageRequest.of(0, size);
+        when(userService.getUserById(anyInt())).thenReturn(user1);
+        when(bookingRepository.getBookingsForBookerAfter(1, cursorStart, 7, page)).thenReturn(List.of(bookingDto));
+        when(bookingRepository.getBookingsForBookerFutureAfter(eq(1), any(), eq(cursorStart), eq(7), eq(page)))
+                .thenReturn(List.of(bookingDto));
+
+        List<BookingDto> allListBookingDto = bookingService.getBookingsForUserAfter(1, "ALL", cursor, size);
+        List<BookingDto> futureListBookingDto = bookingService.getBookingsForUserAfter(1, "FUTURE", cursor, size);
+
+        assertEquals(List.of(bookingDto), allListBookingDto);
+        assertEquals(List.of(bookingDto), futureListBookingDto);
+    }
+
+    @Test
+    void getBookingsForOwnerAfter_returnBookingsList() {
+        int size = 5;
+        LocalDateTime cursorStart = LocalDateTime.now();
+        String cursor = new BookingCursor(cursorStart, 7).encode();
+        PageRequest page = PageRequest.of(0, size);
+        when(userService.getUserById(anyInt())).thenReturn(user1);
+        when(bookingRepository.getBookingsForOwnerByStatusAfter(1, BookingStatus.WAITING, cursorStart, 7, page))
+                .thenReturn(List.of(bookingDto));
+
+        List<BookingDto> statusListBookingDto = bookingService.getBookingsForOwnerAfter(1, "WAITING", cursor, size);
+
+        assertEquals(List.of(bookingDto), statusListBookingDto);
+    }
+
+    @Test
+    void getBookingsForOwnerAfter_wrongState_returnException() {
+        String cursor = new BookingCursor(LocalDateTime.now(), 7).encode();
+
+        ValidationException wrongState = assertThrows(
+                ValidationException.class,
+                () -> bookingService.getBookingsForOwnerAfter(1, "BELIBERDA", cursor, 5));
+        assertEquals("Unknown state: UNSUPPORTED_STATUS", wrongState.getMessage());
+    }
+
+    @Test
+    void countBookingsForUser_returnCount() {
+        when(userService.getUserById(anyInt())).thenReturn(user1);
+        when(bookingRepository.countByBookerId(1)).thenReturn(3L);
+        when(bookingRepository.countByBookerIdAndStatus(1, BookingStatus.REJECTED)).thenReturn(1L);
+
+        assertEquals(3L, bookingService.countBookingsForUser(1, "ALL"));
+        assertEquals(1L, bookingService.countBookingsForUser(1, "REJECTED"));
+    }
+
+    @Test
+    void countBookingsForOwner_returnCount() {
+        when(userService.getUserById(anyInt())).thenReturn(user1);
+        when(bookingRepository.countBookingsForOwner(1)).thenReturn(4L);
+        when(bookingRepository.countBookingsForOwnerFuture(eq(1), any())).thenReturn(2L);
+
+        assertEquals(4L, bookingService.countBookingsForOwner(1, "ALL"));
+        assertEquals(2L, bookingService.countBookingsForOwner(1, "FUTURE"));
+    }
+
+    @Test
+    void countBookingsForOwner_wrongState_returnException() {
+        ValidationException wrongState = assertThrows(
+                ValidationException.class,
+                () -> bookingService.countBookingsForOwner(1, "BELIBERDA"));
+        assertEquals("Unknown state: UNSUPPORTED_STATUS", wrongState.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reserveFreely() {
+        when(bookingIntervalIndex.reserve(anyInt(), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(((Supplier<Booking>) invocation.getArgument(3)).get()));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.AvailabilityPeriod;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAvailabilityCalendarTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @InjectMocks
+    private ItemAvailabilityCalendar itemAvailabilityCalendar;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void getFreePeriods_skipsBookedDays() {
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of(
+                new BookingItemDto(1, today.plusDays(2).atTime(10, 0), today.plusDays(4).atStartOfDay(),
+                        1, 2, BookingStatus.APPROVED)));
+
+        List<AvailabilityPeriod> periods = itemAvailabilityCalendar.getFreePeriods(1, today, today.plusDays(6));
+
+        assertThat(periods, contains(
+                new AvailabilityPeriod(today, today.plusDays(1)),
+                new AvailabilityPeriod(today.plusDays(4), today.plusDays(6))));
+    }
+
+    @Test
+    void occupyAndRelease_updateCalendarWithoutReload() {
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of());
+
+        itemAvailabilityCalendar.occupy(1, today.plusDays(1).atTime(9, 0), today.plusDays(1).atTime(18, 0));
+
+        assertThat(itemAvailabilityCalendar.getFreePeriods(1, today, today.plusDays(2)), contains(
+                new AvailabilityPeriod(today, today),
+                new AvailabilityPeriod(today.plusDays(2), today.plusDays(2))));
+
+        when(bookingIntervalIndex.isFree(eq(1), any(), any())).thenReturn(true);
+        itemAvailabilityCalendar.release(1, today.plusDays(1).atTime(9, 0), today.plusDays(1).atTime(18, 0));
+
+        assertThat(itemAvailabilityCalendar.getFreePeriods(1, today, today.plusDays(2)), contains(
+                new AvailabilityPeriod(today, today.plusDays(2))));
+        verify(bookingRepository, times(1)).findActiveBookingsForItem(eq(1), any());
+    }
+
+    @Test
+    void repeatedRelease_keepsDaysOfNewerBooking() {
+        when(bookingRepository.findActiveBookingsForItem(eq(1), any())).thenReturn(List.of());
+        BookingIntervalIndex intervals = new BookingIntervalIndex(bookingRepository);
+        ItemAvailabilityCalendar calendar = new ItemAvailabilityCalendar(bookingRepository, intervals);
+        LocalDateTime start = today.plusDays(1).atTime(9, 0);
+        LocalDateTime end = today.plusDays(1).atTime(18, 0);
+
+        // первая бронь отклонена, на тот же день встала вторая, затем отклонение первой повторилось
+        intervals.reserve(1, start, end, () -> Booking.builder().id(1).build());
+        calendar.occupy(1, start, end);
+        intervals.release(1, start, 1);
+        calendar.release(1, start, end);
+        intervals.reserve(1, start, end, () -> Booking.builder().id(2).build());
+        calendar.occupy(1, start, end);
+        intervals.release(1, start, 1);
+        calendar.release(1, start, end);
+
+        assertThat(calendar.getFreePeriods(1, today, today.plusDays(2)), contains(
+                new AvailabilityPeriod(today, today),
+                new AvailabilityPeriod(today.plusDays(2), today.plusDays(2))));
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemOccupancyIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @InjectMocks
+    private ItemOccupancyIndex itemOccupancyIndex;
+
+    private final LocalDateTime day = LocalDate.now().plusDays(3).atStartOfDay();
+
+    @Test
+    void findBusyItems_unionOfDaysInWindow() {
+        when(bookingRepository.findAllActiveBookings(any())).thenReturn(List.of(
+                new BookingItemDto(1, day.plusHours(10), day.plusHours(12), 5, 2, BookingStatus.APPROVED),
+                new BookingItemDto(2, day.plusDays(2), day.plusDays(3), 7, 2, BookingStatus.WAITING)));
+
+        BitSet firstDay = itemOccupancyIndex.findBusyItems(day.plusHours(1), day.plusHours(2));
+        BitSet window = itemOccupancyIndex.findBusyItems(day, day.plusDays(3));
+        BitSet nextDay = itemOccupancyIndex.findBusyItems(day.plusDays(1), day.plusDays(2));
+
+        assertThat(firstDay.get(5), is(true));
+        assertThat(firstDay.get(7), is(false));
+        assertThat(window.cardinality(), is(2));
+        assertThat(nextDay.isEmpty(), is(true));
+        verify(bookingRepository, times(1)).findAllActiveBookings(any());
+    }
+
+    @Test
+    void release_clearsDayOnlyWhenItemIsFree() {
+        when(bookingRepository.findAllActiveBookings(any())).thenReturn(List.of());
+        itemOccupancyIndex.occupy(5, day.plusHours(10), day.plusDays(1).plusHours(2));
+        when(bookingIntervalIndex.isFree(eq(5), eq(day), any())).thenReturn(false);
+        when(bookingIntervalIndex.isFree(eq(5), eq(day.plusDays(1)), any())).thenReturn(true);
+
+        itemOccupancyIndex.release(5, day.plusHours(10), day.plusDays(1).plusHours(2));
+
+        assertThat(itemOccupancyIndex.findBusyItems(day, day.plusHours(1)).get(5), is(true));
+        assertThat(itemOccupancyIndex.findBusyItems(day.plusDays(1), day.plusDays(2)).get(5), is(false));
+    }
+
+    @Test
+    void repeatedRelease_keepsDaysOfNewerBooking() {
+        when(bookingRepository.findAllActiveBookings(any())).thenReturn(List.of());
+        when(bookingRepository.findActiveBookingsForItem(eq(5), any())).thenReturn(List.of());
+        BookingIntervalIndex intervals = new BookingIntervalIndex(bookingRepository);
+        ItemOccupancyIndex occupancy = new ItemOccupancyIndex(bookingRepository, intervals);
+        LocalDateTime start = day.plusHours(10);
+        LocalDateTime end = day.plusDays(1).plusHours(2);
+
+        // первая бронь отклонена, на те же дни встала вторая, затем отклонение первой повторилось
+        intervals.reserve(5, start, end, () -> Booking.builder().id(1).build());
+        occupancy.occupy(5, start, end);
+        intervals.release(5, start, 1);
+        occupancy.release(5, start, end);
+        intervals.reserve(5, start, end, () -> Booking.builder().id(2).build());
+        occupancy.occupy(5, start, end);
+        intervals.release(5, start, 1);
+        occupancy.release(5, start, end);
+
+        assertThat(occupancy.findBusyItems(day, day.plusHours(1)).get(5), is(true));
+        assertThat(occupancy.findBusyItems(day.plusDays(1), day.plusDays(2)).get(5), is(true));
+    }
+
+    @Test
+    void findBusyItems_pastDaysAreDroppedOnLoad() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        when(bookingRepository.findAllActiveBookings(any())).thenReturn(List.of(
+                new BookingItemDto(1, today.minusDays(3), today.plusDays(1).plusHours(2), 5, 2, BookingStatus.APPROVED)));
+
+        assertThat(itemOccupancyIndex.findBusyItems(today.minusDays(3), today.minusDays(1)).isEmpty(), is(true));
+        assertThat(itemOccupancyIndex.findBusyItems(today, today.plusDays(2)).get(5), is(true));
+    }
+
+    @Test
+    void releaseDuringLoad_isNotBlockedAndAppliedAfterLoad() {
+        when(bookingRepository.findAllActiveBookings(any())).thenAnswer(invocation -> {
+            // бронь уже прочитана загрузкой, а её отмена фиксируется, пока загрузка не закончилась
+            CompletableFuture.runAsync(() -> itemOccupancyIndex.release(7, day, day.plusHours(2)))
+                    .get(5, TimeUnit.SECONDS);
+            return List.of(new BookingItemDto(1, day, day.plusHours(2), 7, 2, BookingStatus.APPROVED));
+        });
+        when(bookingIntervalIndex.isFree(eq(7), eq(day), any())).thenReturn(true);
+
+        BitSet busy = itemOccupancyIndex.findBusyItems(day, day.plusHours(1));
+
+        assertThat(busy.get(7), is(false));
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.comment.CommentDto;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -142,7 +143,7 @@ class ItemControllerTest {
     @Test
     void searchItemByText_returnItemDtoList() {
         ItemDto itemDto = ItemMapper.toItemDto(item);
-        when(itemService.searchItemByText(anyString(), anyInt(), anyInt())).thenReturn(List.of(itemDto));
+        when(itemService.searchItemByText(anyString(), isNull(), isNull(), eq("PLAIN"), anyInt(), anyInt())).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "text"))
@@ -152,7 +153,57 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].description", is(itemDto.getDescription()), String.class))
                 .andExpect(jsonPath("$[0].available", is(itemDto.getAvailable()), Boolean.class));
 
-        verify(itemService).searchItemByText(anyString(), anyInt(), anyInt());
+        verify(itemService).searchItemByText(anyString(), isNull(), isNull(), eq("PLAIN"), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void searchItemByText_withPeriod_passesPeriod() {
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 2, 10, 0);
+        when(itemService.searchItemByText("text", start, end, "PLAIN", 0, 10)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("start", "2030-01-01T10:00:00")
+                        .param("end", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Integer.class));
+
+        verify(itemService).searchItemByText("text", start, end, "PLAIN", 0, 10);
+    }
+
+    @SneakyThrows
+    @Test
+    void suggestItemNames_returnNames() {
+        when(itemService.suggestItemNames("дре", 5)).thenReturn(List.of("Дрель", "Дрель ударная"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Дрель")))
+                .andExpect(jsonPath("$[1]", is("Дрель ударная")));
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_returnFreePeriods() {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2030, 1, 10);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(1, from, to,
+                List.of(new AvailabilityPeriod(from, from.plusDays(2)), new AvailabilityPeriod(from.plusDays(5), to)));
+        when(itemService.getItemAvailability(1, from, to)).thenReturn(availability);
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01")
+                        .param("to", "2030-01-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.freePeriods[0].from", is("2030-01-01")))
+                .andExpect(jsonPath("$.freePeriods[0].to", is("2030-01-03")))
+                .andExpect(jsonPath("$.freePeriods[1].from", is("2030-01-06")));
     }
 
     @SneakyThrows
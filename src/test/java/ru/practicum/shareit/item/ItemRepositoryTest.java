@@ -9,11 +9,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 
 import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -48,4 +50,42 @@ class ItemRepositoryTest {
         assertThat(items, equalTo(itemList));
     }
 
-}
\ No newline at end of file
+    @Test
+    void findAllByTextContainingAfter_returnNextChunkInIdOrder() {
+        Item first = itemRepository.save(new Item(null, "Дрель", "ударная", true));
+        Item second = itemRepository.save(new Item(null, "Пила", "и дрель", true));
+        Item third = itemRepository.save(new Item(null, "Дрель", "аккумуляторная", true));
+        itemRepository.save(new Item(null, "Лобзик", "desc", true));
+
+        List<Item> items = itemRepository.findAllByTextContainingAfter("дрель", first.getId(), PageRequest.of(0, 5))
+                .toList();
+
+        assertThat(items, equalTo(List.of(second, third)));
+    }
+
+    @Test
+    void findAllByIdGreaterThanOrderByIdAsc_returnNextBatch() {
+        Item first = itemRepository.save(new Item(null, "first", "desc", true));
+        Item second = itemRepository.save(new Item(null, "second", "desc", true));
+
+        List<Item> items = itemRepository.findAllByIdGreaterThanOrderByIdAsc(first.getId(), PageRequest.of(0, 5))
+                .toList();
+
+        assertThat(items, equalTo(List.of(second)));
+    }
+
+    @Test
+    void findAllUpdatedSince_returnChangedItems() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(1);
+        Item changed = itemRepository.save(new Item(null, "changed", "desc", true));
+        em.getEntityManager().createNativeQuery("UPDATE items SET updated = ?1 WHERE id <> ?2")
+                .setParameter(1, since.minusDays(1))
+                .setParameter(2, changed.getId())
+                .executeUpdate();
+
+        List<Item> items = itemRepository.findAllUpdatedSince(since, 0, PageRequest.of(0, 5)).toList();
+
+        assertThat(changed.getUpdated(), notNullValue());
+        assertThat(items, equalTo(List.of(changed)));
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.QueryBudget;
 import ru.practicum.shareit.booking.BookingItemDto;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.item.comment.CommentDto;
@@ -23,6 +25,7 @@ import static org.hamcrest.Matchers.*;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(QueryBudget.Config.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemServiceImplIntegrationTest {
 
@@ -31,6 +34,7 @@ public class ItemServiceImplIntegrationTest {
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingService bookingService;
+    private final QueryBudget queryBudget;
     private ItemDto itemDto;
     private UserDto userDto;
 
@@ -42,7 +46,8 @@ public class ItemServiceImplIntegrationTest {
 
     @Test
     void addItem_returnItem() {
-        ItemDto addedItemDto = itemService.addItem(userDto.getId(), itemDto);
+        ItemDto addedItemDto = queryBudget.select(1).insert(1)
+                .call(() -> itemService.addItem(userDto.getId(), itemDto));
         int id = addedItemDto.getId();
         Item item = itemRepository.getReferenceById(id);
 
@@ -58,7 +63,8 @@ public class ItemServiceImplIntegrationTest {
         ItemDto itemDto = ItemDto.builder().name("newName").description("newDesc").available(true).build();
         int id = createdItemDto.getId();
 
-        ItemDto updItemDto = itemService.updateItem(userDto.getId(), id, itemDto);
+        ItemDto updItemDto = queryBudget.select(1).update(1)
+                .call(() -> itemService.updateItem(userDto.getId(), id, itemDto));
         Item item = itemRepository.getReferenceById(id);
 
         assertThat(item.getId(), notNullValue());
@@ -72,7 +78,8 @@ public class ItemServiceImplIntegrationTest {
         ItemDto itemDto = itemService.addItem(userDto.getId(), this.itemDto);
         int id = itemDto.getId();
 
-        Item itemById = itemService.getItemById(id);
+        Item itemById = queryBudget.select(1)
+                .call(() -> itemService.getItemById(id));
         Item item = itemRepository.getReferenceById(id);
 
         assertThat(itemById.getId(), notNullValue());
@@ -86,7 +93,8 @@ public class ItemServiceImplIntegrationTest {
         ItemDto itemDto = itemService.addItem(userDto.getId(), this.itemDto);
         int id = itemDto.getId();
 
-        ItemDtoBooking itemDtoBookingById = itemService.getItemDtoBookingById(id, userDto.getId());
+        ItemDtoBooking itemDtoBookingById = queryBudget.select(4)
+                .call(() -> itemService.getItemDtoBookingById(id, userDto.getId()));
         Item item = itemRepository.getReferenceById(id);
 
         assertThat(itemDtoBookingById.getId(), notNullValue());
@@ -103,7 +111,8 @@ public class ItemServiceImplIntegrationTest {
         itemService.addItem(userDto.getId(),
                 ItemDto.builder().name("name2").description("desc2").available(true).build());
 
-        List<ItemDtoBooking> items = itemService.getItemsByOwner(userDto.getId(), from, size);
+        List<ItemDtoBooking> items = queryBudget.select(3)
+                .call(() -> itemService.getItemsByOwner(userDto.getId(), from, size));
 
         assertThat(items, hasSize(2));
         for (ItemDtoBooking item : items) {
@@ -121,7 +130,8 @@ public class ItemServiceImplIntegrationTest {
         int size = 5;
         ItemDto newItemDto = itemService.addItem(userDto.getId(), itemDto);
 
-        List<ItemDto> items = itemService.searchItemByText("des", from, size);
+        List<ItemDto> items = queryBudget.select(1)
+                .call(() -> itemService.searchItemByText("des", from, size));
 
         assertThat(items, hasSize(1));
         for (ItemDto item : items) {
@@ -152,7 +162,8 @@ public class ItemServiceImplIntegrationTest {
         CommentDto commentDto = CommentDto.builder().text("comment").authorName(user2name).build();
         Thread.sleep(200);
 
-        CommentDto addedComment = itemService.addComment(user.getId(), item.getId(), commentDto);
+        CommentDto addedComment = queryBudget.select(1).insert(1)
+                .call(() -> itemService.addComment(user.getId(), item.getId(), commentDto));
 
         assertThat(commentDto.getText(), equalTo(addedComment.getText()));
         assertThat(commentDto.getAuthorName(), equalTo(addedComment.getAuthorName()));
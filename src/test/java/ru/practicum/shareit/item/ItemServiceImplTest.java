@@ -9,26 +9,42 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingItemDto;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemAvailabilityCalendar;
+import ru.practicum.shareit.booking.ItemOccupancyIndex;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemDocument;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserServiceImpl;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
@@ -43,6 +59,20 @@ public class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private UserServiceImpl userService;
+    @Mock
+    private ItemAvailabilityCalendar itemAvailabilityCalendar;
+    @Mock
+    private ItemOccupancyIndex itemOccupancyIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSearchProperties itemSearchProperties;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
     @InjectMocks                                    // поле для внедрения моков (объект тестируемого класса)
     private ItemServiceImpl itemService;
     private Item item;
@@ -52,6 +82,8 @@ public class ItemServiceImplTest {
     void setup() {
         user = new User(1, "name", "e@mail.ya");
         item = new Item(1, "name", "desc", true);
+        lenient().when(itemSearchCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<ItemDto>>>getArgument(1).get());
     }
 
     @Test
@@ -64,6 +96,9 @@ public class ItemServiceImplTest {
 
         assertEquals(itemDto, newItemDto);
         verify(itemRepository).save(item);
+        verify(itemSearchIndex).add(ItemDocument.of(item));
+        verify(itemSearchCache).invalidate(null, ItemDocument.of(item));
+        verify(itemSuggestIndex).add(ItemDocument.of(item));
     }
 
     @Test
@@ -117,7 +152,7 @@ public class ItemServiceImplTest {
 
     @Test
     void getItemById_returnItem() {
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemRepository.findWithOwnerById(anyInt())).thenReturn(Optional.of(item));
 
         Item gotItem = itemService.getItemById(1);
 
@@ -127,7 +162,7 @@ public class ItemServiceImplTest {
     @Test
     void getItemById_wrongId() {
         int itemId = 0;
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findWithOwnerById(itemId))
                 .thenReturn(Optional.empty());
 
         NotFoundException nonItem = assertThrows(
@@ -154,6 +189,25 @@ public class ItemServiceImplTest {
         assertEquals(itemDtoBooking, itemDtoBooking2);
     }
 
+    @Test
+    void getItemDtoBookingById_byOwner_returnItemDtoBookingWithBookings() {
+        int itemId = 1;
+        item.setOwner(user);
+        BookingItemDto lastBooking = new BookingItemDto(1, LocalDateTime.now().minusHours(2),
+                LocalDateTime.now().minusHours(1), itemId, 2, "APPROVED");
+        BookingItemDto nextBooking = new BookingItemDto(2, LocalDateTime.now().plusHours(1),
+                LocalDateTime.now().plusHours(2), itemId, 2, "WAITING");
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of());
+        when(bookingRepository.findLastBookingForItem(eq(itemId), any())).thenReturn(Optional.of(lastBooking));
+        when(bookingRepository.findNextBookingForItem(eq(itemId), any())).thenReturn(Optional.of(nextBooking));
+
+        ItemDtoBooking itemDtoBooking = itemService.getItemDtoBookingById(itemId, user.getId());
+
+        assertEquals(lastBooking, itemDtoBooking.getLastBooking());
+        assertEquals(nextBooking, itemDtoBooking.getNextBooking());
+    }
+
     @Test
     void getItemsByOwner_returnOwnerItemList() {
         int from = 0;
@@ -162,9 +216,8 @@ public class ItemServiceImplTest {
         PageRequest page = PageRequest.of(from, size);
         Page<Item> itemPage = new PageImpl<>(itemList);
         when(itemRepository.findAllByOwnerId(anyInt(), eq(page))).thenReturn(itemPage);
-        when(bookingRepository.findLastBookingForItem(anyInt(), any())).thenReturn(List.of());
-        when(bookingRepository.findNextBookingForItem(anyInt(), any())).thenReturn(List.of());
-        when(commentRepository.findAllByItemId(anyInt())).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextBookingsForItems(anyCollection(), any())).thenReturn(List.of());
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(List.of());
 
         List<ItemDtoBooking> list = itemService.getItemsByOwner(1, from, size);
         List<ItemDtoBooking> list2 = itemList.stream()
@@ -179,29 +232,54 @@ public class ItemServiceImplTest {
     void getItemsByOwner_notEmptyBookings_returnOwnerItemList() {
         int from = 0;
         int size = 5;
-        Booking booking = new Booking(1,
+        Booking lastBooking = new Booking(1,
                 LocalDateTime.now().minus(3, ChronoUnit.HOURS),
                 LocalDateTime.now().minus(2, ChronoUnit.HOURS),
                 item, user, BookingStatus.APPROVED);
+        Booking nextBooking = new Booking(2,
+                LocalDateTime.now().plus(2, ChronoUnit.HOURS),
+                LocalDateTime.now().plus(3, ChronoUnit.HOURS),
+                item, user, BookingStatus.APPROVED);
         List<Item> itemList = List.of(item);
         PageRequest page = PageRequest.of(from, size);
         Page<Item> itemPage = new PageImpl<>(itemList);
         when(itemRepository.findAllByOwnerId(anyInt(), eq(page))).thenReturn(itemPage);
-        when(bookingRepository.findLastBookingForItem(anyInt(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findNextBookingForItem(anyInt(), any())).thenReturn(List.of(booking));
-        when(commentRepository.findAllByItemId(anyInt())).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextBookingsForItems(anyCollection(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingItemDto(lastBooking), BookingMapper.toBookingItemDto(nextBooking)));
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(List.of());
 
         List<ItemDtoBooking> list = itemService.getItemsByOwner(1, from, size);
         List<ItemDtoBooking> list2 = itemList.stream()
                 .map(ItemMapper::toItemDtoBooking)
                 .peek(item -> item.setComments(List.of()))
-                .peek(item -> item.setLastBooking(BookingMapper.toBookingItemDto(booking)))
-                .peek(item -> item.setNextBooking(BookingMapper.toBookingItemDto(booking)))
+                .peek(item -> item.setLastBooking(BookingMapper.toBookingItemDto(lastBooking)))
+                .peek(item -> item.setNextBooking(BookingMapper.toBookingItemDto(nextBooking)))
                 .collect(Collectors.toList());
 
         assertEquals(list, list2);
     }
 
+    @Test
+    void getItemsByOwner_withComments_groupCommentsByItem() {
+        int from = 0;
+        int size = 5;
+        Item item2 = new Item(2, "name2", "desc2", true);
+        Comment comment1 = new Comment(1, "text1", item, user);
+        Comment comment2 = new Comment(2, "text2", item2, user);
+        Comment comment3 = new Comment(3, "text3", item2, user);
+        PageRequest page = PageRequest.of(from, size);
+        when(itemRepository.findAllByOwnerId(anyInt(), eq(page))).thenReturn(new PageImpl<>(List.of(item, item2)));
+        when(bookingRepository.findLastAndNextBookingsForItems(anyCollection(), any())).thenReturn(List.of());
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(List.of(comment1, comment2, comment3));
+
+        List<ItemDtoBooking> list = itemService.getItemsByOwner(1, from, size);
+
+        assertEquals(List.of(CommentMapper.toCommentDto(comment1)), list.get(0).getComments());
+        assertEquals(List.of(CommentMapper.toCommentDto(comment2), CommentMapper.toCommentDto(comment3)),
+                list.get(1).getComments());
+        verify(commentRepository, never()).findAllByItemId(anyInt());
+    }
+
     @Test
     void searchItemByText_returnItemList() {
         int from = 0;
@@ -219,6 +297,116 @@ public class ItemServiceImplTest {
         assertEquals(list, list2);
     }
 
+    @Test
+    void searchItemByText_fullTextBackend_usesFullTextQuery() {
+        PageRequest page = PageRequest.of(0, 5);
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.H2_FULLTEXT);
+        when(itemRepository.findAllByFullText("text", page)).thenReturn(new PageImpl<>(List.of(item)));
+
+        List<ItemDto> list = itemService.searchItemByText("text", 0, 5);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item)), list);
+        verify(itemRepository, never()).findAllByTextContaining(anyString(), any());
+    }
+
+    @Test
+    void searchItemByText_builtIndex_loadsMatchedPage() {
+        Item third = new Item(3, "name3", "desc", true);
+        BitSet matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        matches.set(3);
+        when(itemSearchIndex.isBuilt()).thenReturn(true);
+        when(itemSearchIndex.search("text")).thenReturn(matches);
+        when(itemRepository.findAllById(List.of(3))).thenReturn(List.of(third));
+
+        List<ItemDto> list = itemService.searchItemByText("text", 2, 2);
+
+        assertEquals(List.of(ItemMapper.toItemDto(third)), list);
+        verify(itemRepository, never()).findAllByTextContaining(anyString(), any());
+    }
+
+    @Test
+    void searchItemByText_rankedMode_keepsRankOrder() {
+        Item second = new Item(2, "name2", "desc", true);
+        Item third = new Item(3, "name3", "desc", true);
+        when(itemSearchIndex.isBuilt()).thenReturn(true);
+        when(itemSearchIndex.searchRanked(eq("text"), eq(4), any())).thenReturn(List.of(1, 4, 3, 2));
+        when(itemRepository.findAllById(List.of(3, 2))).thenReturn(List.of(second, third));
+
+        List<ItemDto> list = itemService.searchItemByText("text", null, null, "RANKED", 2, 2);
+
+        assertEquals(List.of(ItemMapper.toItemDto(third), ItemMapper.toItemDto(second)), list);
+    }
+
+    @Test
+    void searchItemByText_fuzzyMode_usesTrigramSearch() {
+        when(itemSearchIndex.isBuilt()).thenReturn(true);
+        when(itemSearchIndex.searchFuzzy(eq("дрэль"), eq(5), any())).thenReturn(List.of(1));
+        when(itemRepository.findAllById(List.of(1))).thenReturn(List.of(item));
+
+        List<ItemDto> list = itemService.searchItemByText("дрэль", null, null, "FUZZY", 0, 5);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item)), list);
+        verify(itemSearchIndex, never()).search(anyString());
+    }
+
+    @Test
+    void searchItemByText_unknownMode_returnException() {
+        assertThrows(
+                ValidationException.class,
+                () -> itemService.searchItemByText("text", null, null, "RANDOM", 0, 5));
+    }
+
+    @Test
+    void searchItemByText_withPeriod_skipsBusyItems() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusHours(5);
+        Item busy = new Item(2, "busy", "desc", true);
+        Item maybeBusy = new Item(3, "maybe", "desc", true);
+        Item free = new Item(4, "free", "desc", true);
+        BitSet busyItems = new BitSet();
+        busyItems.set(2);
+        busyItems.set(3);
+        when(itemOccupancyIndex.findBusyItems(start, end)).thenReturn(busyItems);
+        when(bookingIntervalIndex.isFree(2, start, end)).thenReturn(false);
+        when(bookingIntervalIndex.isFree(3, start, end)).thenReturn(true);
+        Item fifth = new Item(5, "fifth", "desc", true);
+        when(itemRepository.findAllByTextContainingAfter("text", 0, PageRequest.of(0, 6)))
+                .thenReturn(new SliceImpl<>(List.of(item, busy), PageRequest.of(0, 6), true));
+        when(itemRepository.findAllByTextContainingAfter("text", 2, PageRequest.of(0, 6)))
+                .thenReturn(new SliceImpl<>(List.of(maybeBusy, free, fifth), PageRequest.of(0, 6), false));
+
+        // from=3 при size=2 - вторая страница, как и без периода
+        List<ItemDto> list = itemService.searchItemByText("text", start, end, "PLAIN", 3, 2);
+
+        assertEquals(List.of(ItemMapper.toItemDto(free), ItemMapper.toItemDto(fifth)), list);
+        verify(bookingIntervalIndex, never()).isFree(eq(item.getId()), any(), any());
+        verify(itemSearchCache, never()).get(any(), any());
+    }
+
+    @Test
+    void searchItemByText_wrongPeriod_returnException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(
+                ValidationException.class,
+                () -> itemService.searchItemByText("text", start, start.minusHours(1), "PLAIN", 0, 5));
+        assertThrows(
+                ValidationException.class,
+                () -> itemService.searchItemByText("text", start, null, "PLAIN", 0, 5));
+        verify(itemRepository, never()).findAllByTextContaining(anyString(), any());
+    }
+
+    @Test
+    void suggestItemNames_returnIndexSuggestions() {
+        when(itemSuggestIndex.suggest("дре", 5)).thenReturn(List.of("Дрель"));
+
+        assertEquals(List.of("Дрель"), itemService.suggestItemNames("дре", 5));
+        assertTrue(itemService.suggestItemNames(" ", 5).isEmpty());
+        verify(itemSuggestIndex).suggest(anyString(), anyInt());
+    }
+
     @Test
     void searchItemByText_emptyText_returnEmptyList() {
         int from = 0;
@@ -271,4 +459,27 @@ public class ItemServiceImplTest {
         assertEquals("Пользователь не может оставить комментарий для объекта, который не использовал", noNameItem.getMessage());
     }
 
+    @Test
+    void getItemAvailability_returnFreePeriods() {
+        LocalDate from = LocalDate.now();
+        List<AvailabilityPeriod> periods = List.of(new AvailabilityPeriod(from, from.plusDays(3)));
+        when(itemRepository.findWithOwnerById(anyInt())).thenReturn(Optional.of(item));
+        when(itemAvailabilityCalendar.getFreePeriods(1, from, from.plusDays(3))).thenReturn(periods);
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(1, from, from.plusDays(3));
+
+        assertEquals(periods, availability.getFreePeriods());
+        verify(bookingRepository, never()).findActiveBookingsForItem(anyInt(), any());
+    }
+
+    @Test
+    void getItemAvailability_wrongPeriod_returnException() {
+        LocalDate from = LocalDate.now();
+
+        assertThrows(
+                ValidationException.class,
+                () -> itemService.getItemAvailability(1, from, from.minusDays(1)));
+        verify(itemAvailabilityCalendar, never()).getFreePeriods(anyInt(), any(), any());
+    }
+
 }
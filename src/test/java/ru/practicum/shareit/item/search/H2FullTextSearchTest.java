@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+@DataJpaTest
+@Import(H2FullTextInitializer.class)
+@TestPropertySource(properties = "shareit.search.backend=h2-fulltext")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class H2FullTextSearchTest {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void findAllByFullText_returnAvailableMatchesInIdOrder() {
+        Item drill = itemRepository.save(new Item(null, "Дрель", "ударная", true));
+        itemRepository.save(new Item(null, "Пила", "цепная", true));
+        itemRepository.save(new Item(null, "Дрель", "сломана", false));
+        Item cordless = itemRepository.save(new Item(null, "Шуруповёрт", "почти дрель", true));
+        em.flush();
+
+        List<Item> items = itemRepository.findAllByFullText("дрель", PageRequest.of(0, 5)).toList();
+
+        assertThat(items, contains(drill, cordless));
+    }
+
+    @Test
+    void findAllByFullTextAfter_returnMatchesAfterId() {
+        Item drill = itemRepository.save(new Item(null, "Дрель", "ударная", true));
+        itemRepository.save(new Item(null, "Пила", "цепная", true));
+        Item cordless = itemRepository.save(new Item(null, "Шуруповёрт", "почти дрель", true));
+        em.flush();
+
+        List<Item> items = itemRepository.findAllByFullTextAfter("дрель", drill.getId(), PageRequest.of(0, 5)).toList();
+
+        assertThat(items, contains(cordless));
+    }
+}
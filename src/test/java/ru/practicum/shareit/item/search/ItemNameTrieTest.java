@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+class ItemNameTrieTest {
+
+    private final ItemNameTrie trie = new ItemNameTrie(3);
+
+    @Test
+    void suggest_matchesAnyWordStart() {
+        trie.add("Дрель ударная");
+        trie.add("Перфоратор");
+
+        assertThat(trie.suggest("ДРЕ", 10), contains("Дрель ударная"));
+        assertThat(trie.suggest("удар", 10), contains("Дрель ударная"));
+        assertThat(trie.suggest("  дрель  уд", 10), contains("Дрель ударная"));
+        assertThat(trie.suggest("рель", 10), empty());
+        assertThat(trie.suggest(" ", 10), empty());
+    }
+
+    @Test
+    void suggest_ordersByItemCountThenName() {
+        trie.add("Дрель");
+        trie.add("Дрель Bosch");
+        trie.add("Дрель Makita");
+        trie.add("Дрель Makita");
+        trie.add("Дрель Интерскол");
+
+        assertThat(trie.suggest("дрель", 10), contains("Дрель Makita", "Дрель", "Дрель Bosch"));
+        assertThat(trie.suggest("дрель", 2), contains("Дрель Makita", "Дрель"));
+    }
+
+    @Test
+    void remove_updatesCachedSuggestions() {
+        trie.add("Дрель");
+        trie.add("Дрель Bosch");
+        trie.suggest("д", 10);
+
+        trie.remove("Дрель");
+        trie.add("Долото");
+
+        assertThat(trie.suggest("д", 10), contains("Долото", "Дрель Bosch"));
+        trie.remove("Дрель Bosch");
+        assertThat(trie.suggest("bosch", 10), empty());
+        assertThat(trie.suggest("дре", 10), empty());
+    }
+
+    @Test
+    void addAndRemove_matchBruteForce() {
+        String[] words = {"дрель", "дрели", "дрожь", "др", "bosch", "bo", "ударная", "удар"};
+        Random random = new Random(11);
+        Map<String, Integer> counts = new HashMap<>();
+        ItemNameTrie large = new ItemNameTrie(5);
+        for (int step = 0; step < 2000; step++) {
+            String name = words[random.nextInt(words.length)] + (random.nextBoolean()
+                    ? " " + words[random.nextInt(words.length)] : "");
+            if (random.nextInt(3) == 0 && counts.containsKey(name)) {
+                large.remove(name);
+                counts.merge(name, -1, (count, change) -> count + change > 0 ? count + change : null);
+            } else {
+                large.add(name);
+                counts.merge(name, 1, Integer::sum);
+            }
+            String prefix = words[random.nextInt(words.length)].substring(0, 1 + random.nextInt(2));
+            assertThat(large.suggest(prefix, 5), is(expected(counts, prefix, 5)));
+        }
+    }
+
+    private static List<String> expected(Map<String, Integer> counts, String prefix, int size) {
+        return counts.entrySet().stream()
+                .filter(entry -> Arrays.stream(entry.getKey().split(" ")).anyMatch(word -> word.startsWith(prefix)))
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
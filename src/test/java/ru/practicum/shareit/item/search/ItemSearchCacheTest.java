@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ItemSearchCacheTest {
+
+    private final ItemDto drill = ItemDto.builder().id(1).name("Дрель").description("ударная").available(true).build();
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchProperties itemSearchProperties;
+    private ItemSearchCache itemSearchCache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemSearchProperties = new ItemSearchProperties();
+        itemSearchCache = new ItemSearchCache(itemSearchProperties, meterRegistry);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void key_normalisesTokens() {
+        assertThat(itemSearchCache.key("Ударная  ДРЕЛЬ!", ItemSearchMode.PLAIN, 0, 10),
+                is(itemSearchCache.key("дрель ударная", ItemSearchMode.PLAIN, 0, 10)));
+    }
+
+    @Test
+    void get_repeatedQuery_servedFromCacheWithMetrics() {
+        ItemSearchKey key = itemSearchCache.key("дрель", ItemSearchMode.PLAIN, 0, 10);
+
+        assertThat(itemSearchCache.get(key, this::search), is(List.of(drill)));
+        assertThat(itemSearchCache.get(key, this::search), is(List.of(drill)));
+
+        assertThat(searches.get(), is(1));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count(), is(1.0));
+    }
+
+    @Test
+    void invalidate_evictsOnlyIntersectingQueries() {
+        ItemSearchKey drillKey = itemSearchCache.key("дрел", ItemSearchMode.PLAIN, 0, 10);
+        ItemSearchKey sawKey = itemSearchCache.key("пила", ItemSearchMode.PLAIN, 0, 10);
+        itemSearchCache.get(drillKey, this::search);
+        itemSearchCache.get(sawKey, this::search);
+
+        itemSearchCache.invalidate(null, new ItemDocument(2, "Дрель", "аккумуляторная", true));
+        itemSearchCache.get(drillKey, this::search);
+        itemSearchCache.get(sawKey, this::search);
+
+        assertThat(searches.get(), is(3));
+    }
+
+    @Test
+    void invalidate_fuzzyQuery_matchesSimilarTokens() {
+        ItemSearchKey fuzzyKey = itemSearchCache.key("дрэль", ItemSearchMode.FUZZY, 0, 10);
+        ItemSearchKey plainKey = itemSearchCache.key("дрэль", ItemSearchMode.PLAIN, 0, 10);
+        itemSearchCache.get(fuzzyKey, this::search);
+        itemSearchCache.get(plainKey, this::search);
+
+        itemSearchCache.invalidate(null, new ItemDocument(2, "Дрель", "аккумуляторная", true));
+        itemSearchCache.get(fuzzyKey, this::search);
+        itemSearchCache.get(plainKey, this::search);
+
+        assertThat(searches.get(), is(3));
+    }
+
+    @Test
+    void invalidate_likeBackend_matchesSubstrings() {
+        itemSearchProperties.setBackend(ItemSearchBackend.LIKE);
+        ItemSearchKey key = itemSearchCache.key("ЕЛЬ", ItemSearchMode.PLAIN, 0, 10);
+        itemSearchCache.get(key, this::search);
+
+        itemSearchCache.invalidate(new ItemDocument(1, "Дрель", "ударная", true),
+                new ItemDocument(1, "Перфоратор", "ударный", true));
+        itemSearchCache.get(key, this::search);
+
+        assertThat(searches.get(), is(2));
+    }
+
+    @Test
+    void get_invalidatedDuringSearch_doesNotStoreResult() {
+        ItemSearchKey key = itemSearchCache.key("дрель", ItemSearchMode.PLAIN, 0, 10);
+
+        itemSearchCache.get(key, () -> {
+            itemSearchCache.invalidate(null, new ItemDocument(2, "Дрель", "новая", true));
+            return search();
+        });
+        itemSearchCache.get(key, this::search);
+
+        assertThat(searches.get(), is(2));
+    }
+
+    private List<ItemDto> search() {
+        searches.incrementAndGet();
+        return List.of(drill);
+    }
+}
@@ -0,0 +1,292 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchProperties itemSearchProperties;
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.INDEX);
+    }
+
+    @Test
+    void tokenize_splitsLowercasesAndStems() {
+        assertThat(ItemTokenizer.tokenize("Дрель-шуруповёрт Bosch", "bosch, 18V"),
+                contains("дрел", "шуруповерт", "bosch", "18v"));
+        assertThat(ItemTokenizer.tokenize("дрели ДРЕЛЬЮ"), contains("дрел"));
+        assertThat(ItemTokenizer.tokenize("Drills drilling"), contains("drill"));
+    }
+
+    @Test
+    void search_matchesWordForms() {
+        itemSearchIndex.add(new ItemDocument(1, "Дрель", "ударная", true));
+        itemSearchIndex.add(new ItemDocument(2, "Ёлка", "искусственная", true));
+        itemSearchIndex.add(new ItemDocument(3, "Cordless drill", "with batteries", true));
+
+        assertThat(ids(itemSearchIndex.search("дрели")), contains(1));
+        assertThat(ids(itemSearchIndex.search("елки")), contains(2));
+        assertThat(ids(itemSearchIndex.search("drills battery")), contains(3));
+    }
+
+    @Test
+    void build_loadsItemsInBatches() {
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.INDEX);
+        when(itemSearchProperties.getSnapshot()).thenReturn(new ItemSearchProperties.Snapshot());
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(
+                List.of(new Item(1, "Дрель", "ударная дрель", true)), PageRequest.of(0, 1), true));
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(1), any())).thenReturn(new SliceImpl<>(
+                List.of(new Item(2, "Отвёртка", "крестовая", true))));
+
+        itemSearchIndex.build();
+
+        assertThat(itemSearchIndex.isBuilt(), is(true));
+        assertThat(ids(itemSearchIndex.search("дрел")), contains(1));
+        assertThat(ids(itemSearchIndex.search("КРЕСТ")), contains(2));
+    }
+
+    @Test
+    void build_keepsChangesMadeBeforeIndexIsReady() {
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.INDEX);
+        when(itemSearchProperties.getSnapshot()).thenReturn(new ItemSearchProperties.Snapshot());
+        // транзакции ещё не закоммичены: сканирование видит старое название первой вещи и не видит третью
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(1, "Дрель", "ударная", true), new Item(2, "Отвёртка", "крестовая", true))));
+        itemSearchIndex.update(new ItemDocument(1, "Дрель", "ударная", true),
+                new ItemDocument(1, "Перфоратор", "ударный", true));
+        itemSearchIndex.add(new ItemDocument(3, "Палатка", "туристическая", true));
+
+        itemSearchIndex.build();
+
+        assertThat(ids(itemSearchIndex.search("дрель")).isEmpty(), is(true));
+        assertThat(ids(itemSearchIndex.search("перфоратор")), contains(1));
+        assertThat(ids(itemSearchIndex.search("палатка")), contains(3));
+        assertThat(ids(itemSearchIndex.search("удар")), contains(1));
+    }
+
+    @Test
+    void build_doesNotBlockWritersDuringScan() {
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.INDEX);
+        when(itemSearchProperties.getSnapshot()).thenReturn(new ItemSearchProperties.Snapshot());
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenAnswer(invocation -> {
+            // запись из другого потока, как из транзакции сервиса, должна пройти, пока идёт сканирование
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() ->
+                    itemSearchIndex.add(new ItemDocument(2, "Палатка", "туристическая", true)));
+            writer.get(5, TimeUnit.SECONDS);
+            return new SliceImpl<>(List.of(new Item(1, "Дрель", "ударная", true)));
+        });
+
+        itemSearchIndex.build();
+
+        assertThat(ids(itemSearchIndex.search("дрель")), contains(1));
+        assertThat(ids(itemSearchIndex.search("палатка")), contains(2));
+    }
+
+    @Test
+    void add_otherBackend_skipsIndex() {
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.H2_FULLTEXT);
+
+        itemSearchIndex.add(new ItemDocument(1, "Дрель", "ударная", true));
+        itemSearchIndex.update(new ItemDocument(1, "Дрель", "ударная", true),
+                new ItemDocument(1, "Перфоратор", "ударный", true));
+
+        assertThat(itemSearchIndex.search("дрель").isEmpty(), is(true));
+        assertThat(itemSearchIndex.search("перфоратор").isEmpty(), is(true));
+    }
+
+    @Test
+    void build_otherBackend_skipsIndex() {
+        when(itemSearchProperties.getBackend()).thenReturn(ItemSearchBackend.LIKE);
+
+        itemSearchIndex.build();
+
+        assertThat(itemSearchIndex.isBuilt(), is(false));
+        verify(itemRepository, never()).findAllByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void search_intersectsTokenPrefixesOfAvailableItems() {
+        itemSearchIndex.add(new ItemDocument(1, "Дрель ударная", "мощная", true));
+        itemSearchIndex.add(new ItemDocument(2, "Дрель", "аккумуляторная", true));
+        itemSearchIndex.add(new ItemDocument(3, "Дрель ударная", "сломана", false));
+
+        assertThat(ids(itemSearchIndex.search("дре")), contains(1, 2));
+        assertThat(ids(itemSearchIndex.search("дрель удар")), contains(1));
+        assertThat(ids(itemSearchIndex.search("пила")).isEmpty(), is(true));
+        assertThat(ids(itemSearchIndex.search("!!!")).isEmpty(), is(true));
+    }
+
+    @Test
+    void update_replacesTokensAndAvailability() {
+        ItemDocument previous = new ItemDocument(1, "Дрель", "ударная", true);
+        itemSearchIndex.add(previous);
+
+        itemSearchIndex.update(previous, new ItemDocument(1, "Перфоратор", "ударный", false));
+
+        assertThat(ids(itemSearchIndex.search("дрель")).isEmpty(), is(true));
+        assertThat(ids(itemSearchIndex.search("перфоратор")).isEmpty(), is(true));
+
+        itemSearchIndex.update(new ItemDocument(1, "Перфоратор", "ударный", false),
+                new ItemDocument(1, "Перфоратор", "ударный", true));
+
+        assertThat(ids(itemSearchIndex.search("перф удар")), contains(1));
+    }
+
+    @Test
+    void searchRanked_putsNameMatchesAboveDescriptionMatches() {
+        itemSearchIndex.add(new ItemDocument(1, "Стремянка", "повесить дрель", true));
+        itemSearchIndex.add(new ItemDocument(2, "Дрель", "ударная", true));
+        itemSearchIndex.add(new ItemDocument(3, "Набор свёрл", "для дрели", true));
+        itemSearchIndex.add(new ItemDocument(4, "Дрель дрель", "дрель", false));
+
+        assertThat(itemSearchIndex.searchRanked("дрел", 10, id -> true), contains(2, 1, 3));
+    }
+
+    @Test
+    void searchRanked_keepsTopLimitOfFilteredItems() {
+        for (int id = 1; id <= 20; id++) {
+            String name = id % 5 == 0 ? "Дрель" : "Ящик";
+            itemSearchIndex.add(new ItemDocument(id, name, "инструмент", true));
+        }
+
+        assertThat(itemSearchIndex.searchRanked("инструмент дрель", 3, id -> id != 10), contains(5, 15, 20));
+        assertThat(itemSearchIndex.searchRanked("инструмент", 2, id -> true).size(), is(2));
+        assertThat(itemSearchIndex.searchRanked("пила", 2, id -> true).isEmpty(), is(true));
+    }
+
+    @Test
+    void searchFuzzy_toleratesTypos() {
+        when(itemSearchProperties.getFuzzy()).thenReturn(new ItemSearchProperties.Fuzzy());
+        itemSearchIndex.add(new ItemDocument(1, "Дрель ударная", "мощная", true));
+        itemSearchIndex.add(new ItemDocument(2, "Перфоратор", "для бетона", true));
+        itemSearchIndex.add(new ItemDocument(3, "Дрель", "сломана", false));
+
+        assertThat(itemSearchIndex.searchFuzzy("дрэль", 10, id -> true), contains(1));
+        assertThat(itemSearchIndex.searchFuzzy("перфаратор", 10, id -> true), contains(2));
+        assertThat(itemSearchIndex.searchFuzzy("дрэль удорная", 10, id -> true), contains(1));
+        assertThat(itemSearchIndex.searchFuzzy("дрэль бетона", 10, id -> true).isEmpty(), is(true));
+        assertThat(itemSearchIndex.searchFuzzy("пила", 10, id -> true).isEmpty(), is(true));
+    }
+
+    @Test
+    void searchFuzzy_ranksCloserTokensFirstAndRespectsThreshold() {
+        ItemSearchProperties.Fuzzy fuzzy = new ItemSearchProperties.Fuzzy();
+        when(itemSearchProperties.getFuzzy()).thenReturn(fuzzy);
+        itemSearchIndex.add(new ItemDocument(1, "Палатка", "трёхместная", true));
+        itemSearchIndex.add(new ItemDocument(2, "Палата", "больничная", true));
+
+        assertThat(itemSearchIndex.searchFuzzy("палатк", 10, id -> true), contains(1, 2));
+        assertThat(itemSearchIndex.searchFuzzy("палатк", 10, id -> id != 1), contains(2));
+
+        assertThat(itemSearchIndex.searchFuzzy("палвтка", 10, id -> true), contains(1, 2));
+
+        fuzzy.setThreshold(0.9);
+        assertThat(itemSearchIndex.searchFuzzy("палвтка", 10, id -> true).isEmpty(), is(true));
+    }
+
+    @Test
+    void searchFuzzy_forgetsRemovedTokens() {
+        when(itemSearchProperties.getFuzzy()).thenReturn(new ItemSearchProperties.Fuzzy());
+        ItemDocument previous = new ItemDocument(1, "Дрель", "ударная", true);
+        itemSearchIndex.add(previous);
+
+        itemSearchIndex.update(previous, new ItemDocument(1, "Перфоратор", "ударный", true));
+
+        assertThat(itemSearchIndex.searchFuzzy("дрэль", 10, id -> true).isEmpty(), is(true));
+        assertThat(itemSearchIndex.searchFuzzy("перфаратор", 10, id -> true), contains(1));
+    }
+
+    @Test
+    void snapshot_loadsAndReplaysChangedItems(@TempDir Path directory) {
+        ItemSearchProperties properties = new ItemSearchProperties();
+        properties.getSnapshot().setPath(directory.resolve("items.snapshot").toString());
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(1, "Дрель", "ударная", true), new Item(2, "Отвёртка", "крестовая", true))));
+        ItemSearchIndex written = new ItemSearchIndex(itemRepository, properties);
+        written.build();
+        written.writeSnapshot();
+        when(itemRepository.findAllUpdatedSince(any(), eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(2, "Перфоратор", "ударный", true), new Item(3, "Палатка", "туристическая", false))));
+
+        ItemSearchIndex loaded = new ItemSearchIndex(itemRepository, properties);
+        loaded.build();
+
+        assertThat(loaded.isBuilt(), is(true));
+        verify(itemRepository, times(1)).findAllByIdGreaterThanOrderByIdAsc(any(), any());
+        assertThat(ids(loaded.search("дрель")), contains(1));
+        assertThat(ids(loaded.search("отвертка")).isEmpty(), is(true));
+        assertThat(ids(loaded.search("удар")), contains(1, 2));
+        assertThat(ids(loaded.search("палатка")).isEmpty(), is(true));
+        assertThat(loaded.searchRanked("перфоратор ударный", 10, id -> true), contains(2));
+    }
+
+    @Test
+    void snapshot_corruptedFile_rebuildsFromRepository(@TempDir Path directory) throws IOException {
+        Path snapshot = directory.resolve("items.snapshot");
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        ItemSearchProperties properties = new ItemSearchProperties();
+        properties.getSnapshot().setPath(snapshot.toString());
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(1, "Дрель", "ударная", true))));
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, properties);
+
+        index.build();
+
+        assertThat(ids(index.search("дрель")), contains(1));
+        verify(itemRepository, never()).findAllUpdatedSince(any(), any(), any());
+    }
+
+    @Test
+    void update_ofNotIndexedItem_keepsDocumentCount(@TempDir Path directory) throws IOException {
+        ItemSearchProperties properties = new ItemSearchProperties();
+        Path snapshot = directory.resolve("items.snapshot");
+        properties.getSnapshot().setPath(snapshot.toString());
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(1, "Дрель", "ударная", true), new Item(2, "Отвёртка", "крестовая", true))));
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, properties);
+        index.build();
+
+        index.update(new ItemDocument(7, "Пила", "цепная", true), new ItemDocument(7, "Пила", "цепная", true));
+        index.writeSnapshot();
+
+        assertThat(ItemSearchSnapshot.read(snapshot).getDocuments(), is(3));
+        assertThat(ids(index.search("пила")), contains(7));
+    }
+
+    private static List<Integer> ids(BitSet bits) {
+        return bits.stream().boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSuggestIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Test
+    void build_suggestsAvailableNames() {
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of(
+                new Item(1, "Дрель", "ударная", true), new Item(2, "Дрель Bosch", "сломана", false))));
+
+        itemSuggestIndex.build();
+
+        assertThat(itemSuggestIndex.suggest("дре", 5), contains("Дрель"));
+    }
+
+    @Test
+    void build_appliesWritesOnBothSidesOfScanPosition() {
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(
+                List.of(new Item(1, "Дрель", "ударная", true)), PageRequest.of(0, 1), true));
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(1), any())).thenAnswer(invocation -> {
+            // первая вещь уже в новом дереве, третья ещё нет; писатель не ждёт конца сканирования
+            CompletableFuture.runAsync(() -> {
+                itemSuggestIndex.update(new ItemDocument(1, "Дрель", "ударная", true),
+                        new ItemDocument(1, "Шуруповёрт", "аккумуляторный", true));
+                itemSuggestIndex.update(new ItemDocument(3, "Палатка", "двухместная", true),
+                        new ItemDocument(3, "Тент", "от дождя", true));
+            }).get(5, TimeUnit.SECONDS);
+            return new SliceImpl<>(List.of(new Item(3, "Палатка", "двухместная", true)));
+        });
+
+        itemSuggestIndex.build();
+
+        assertThat(itemSuggestIndex.suggest("дре", 5), empty());
+        assertThat(itemSuggestIndex.suggest("шур", 5), contains("Шуруповёрт"));
+        assertThat(itemSuggestIndex.suggest("пал", 5), empty());
+        assertThat(itemSuggestIndex.suggest("тен", 5), contains("Тент"));
+    }
+
+    @Test
+    void build_usesLatestVersionOfItemChangedBeforeStart() {
+        when(itemRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(new SliceImpl<>(List.of()));
+        ItemDocument tent = new ItemDocument(4, "Тент", "от дождя", true);
+        itemSuggestIndex.add(tent);
+        itemSuggestIndex.update(tent, new ItemDocument(4, "Тент", "от дождя", false));
+
+        itemSuggestIndex.build();
+
+        assertThat(itemSuggestIndex.suggest("тен", 5), empty());
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.QueryBudget;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserService;
@@ -19,6 +21,7 @@ import static org.hamcrest.Matchers.*;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(QueryBudget.Config.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class ItemRequestServiceImplIntegrationTest {
 
@@ -26,6 +29,7 @@ class ItemRequestServiceImplIntegrationTest {
     private final ItemRequestService itemRequestService;
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
+    private final QueryBudget queryBudget;
     private UserDto userDto1;
     private UserDto userDto2;
     private ItemRequestDto itemRequestDto;
@@ -43,7 +47,8 @@ class ItemRequestServiceImplIntegrationTest {
 
     @Test
     void addRequest_returnRequestDto() {
-        itemRequestDto = itemRequestService.addRequest(userDto1.getId(), preItemRequestDto);
+        itemRequestDto = queryBudget.select(1).insert(1)
+                .call(() -> itemRequestService.addRequest(userDto1.getId(), preItemRequestDto));
         int id = itemRequestDto.getId();
         ItemRequest itemRequest = itemRequestRepository.getReferenceById(id);
 
@@ -57,7 +62,8 @@ class ItemRequestServiceImplIntegrationTest {
     void getMyRequests_returnRequestDtoList() {
         itemRequestDto = itemRequestService.addRequest(userDto1.getId(), preItemRequestDto);
 
-        List<ItemRequestDto> itemRequestList = itemRequestService.getMyRequests(userDto1.getId());
+        List<ItemRequestDto> itemRequestList = queryBudget.select(3)
+                .call(() -> itemRequestService.getMyRequests(userDto1.getId()));
 
         assertThat(itemRequestList, hasSize(1));
         for (ItemRequestDto item : itemRequestList) {
@@ -74,9 +80,10 @@ class ItemRequestServiceImplIntegrationTest {
     void getRequestById_returnRequestDto() {
         itemRequestDto = itemRequestService.addRequest(userDto1.getId(), preItemRequestDto);
         int id = itemRequestDto.getId();
-        ItemRequest itemRequest = itemRequestRepository.getReferenceById(id);
 
-        ItemRequestDto itemRequestById = itemRequestService.getRequestById(userDto1.getId(), id);
+        ItemRequestDto itemRequestById = queryBudget.select(3)
+                .call(() -> itemRequestService.getRequestById(userDto1.getId(), id));
+        ItemRequest itemRequest = itemRequestRepository.getReferenceById(id);
 
         assertThat(itemRequestById.getId(), notNullValue());
         assertThat(itemRequestById.getDescription(), equalTo(itemRequest.getDescription()));
@@ -90,7 +97,8 @@ class ItemRequestServiceImplIntegrationTest {
         int size = 5;
         itemRequestDto = itemRequestService.addRequest(userDto1.getId(), preItemRequestDto);
 
-        List<ItemRequestDto> requestList = itemRequestService.getAllRequests(userDto2.getId(), from, size);
+        List<ItemRequestDto> requestList = queryBudget.select(3)
+                .call(() -> itemRequestService.getAllRequests(userDto2.getId(), from, size));
 
         assertThat(requestList, hasSize(1));
         for (ItemRequestDto request : requestList) {
@@ -9,6 +9,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
@@ -18,8 +20,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,13 +53,13 @@ class ItemRequestServiceImplTest {
     @Test
     void addRequest_returnRequestDto() {
         when(userService.getUserById(anyInt())).thenReturn(user1);
-        when(itemRequestRepository.save(itemRequest)).thenReturn(itemRequest);
+        when(itemRequestRepository.save(any(ItemRequest.class))).thenReturn(itemRequest);
 
         ItemRequestDto newItemRequestDto = itemRequestService.addRequest(1, itemRequestDto);
         itemRequestDto.setCreated(LocalDateTime.MIN);
 
         assertEquals(itemRequestDto, newItemRequestDto);
-        verify(itemRequestRepository).save(itemRequest);
+        verify(itemRequestRepository).save(argThat(request -> request.getId() == null));
     }
 
     @Test
@@ -98,4 +103,24 @@ class ItemRequestServiceImplTest {
         assertEquals(newItemRequestList, itemRequestDtoList);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAllRequests_withItems_loadItemsInOneQuery() {
+        int from = 0;
+        int size = 5;
+        ItemRequest itemRequest2 = new ItemRequest(2, "request2", LocalDateTime.MIN, user1);
+        Item item1 = new Item(1, "name", "desc", true, itemRequest);
+        Item item2 = new Item(2, "name2", "desc2", true, itemRequest);
+        PageRequest page = PageRequest.of(from, size);
+        when(userService.getUserById(anyInt())).thenReturn(user1);
+        when(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(anyInt(), eq(page)))
+                .thenReturn(new PageImpl<>(List.of(itemRequest, itemRequest2)));
+        when(itemRepository.findAllByRequestIdIn(List.of(1, 2))).thenReturn(List.of(item1, item2));
+
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(1, from, size);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item2)), requests.get(0).getItems());
+        assertEquals(List.of(), requests.get(1).getItems());
+        verify(itemRepository, never()).findAllByRequestId(anyInt());
+    }
+
+}
@@ -5,24 +5,27 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
+import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.QueryBudget;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(QueryBudget.Config.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class UserServiceImplIntegrationTest {
 
     private final EntityManager em;
     private final UserService userService;
     private final UserRepository userRepository;
+    private final QueryBudget queryBudget;
     private UserDto userDto;
 
     @BeforeEach
@@ -32,7 +35,8 @@ public class UserServiceImplIntegrationTest {
 
     @Test
     void createUser_returnSavedUser() {
-        UserDto createdUserDto = userService.createUser(userDto);
+        UserDto createdUserDto = queryBudget.insert(1)
+                .call(() -> userService.createUser(userDto));
         int id = createdUserDto.getId();
         User user = userRepository.getReferenceById(id);
 
@@ -47,7 +51,8 @@ public class UserServiceImplIntegrationTest {
         UserDto userDto = UserDto.builder().name("newName").email("new@mail.com").build();
         int id = createdUserDto.getId();
 
-        UserDto updUserDto = userService.updateUser(userDto, id);
+        UserDto updUserDto = queryBudget.select(1).update(1)
+                .call(() -> userService.updateUser(userDto, id));
         User user = userRepository.getReferenceById(id);
 
         assertThat(user.getId(), notNullValue());
@@ -60,7 +65,8 @@ public class UserServiceImplIntegrationTest {
         UserDto userDto = userService.createUser(this.userDto);
         int id = userDto.getId();
 
-        User userById = userService.getUserById(id);
+        User userById = queryBudget.select(1)
+                .call(() -> userService.getUserById(id));
         User user = userRepository.getReferenceById(id);
 
         assertThat(userById.getId(), notNullValue());
@@ -76,7 +82,8 @@ public class UserServiceImplIntegrationTest {
         userService.createUser(userDto2);
         userService.createUser(userDto3);
 
-        List<UserDto> users = userService.getAllUsers();
+        List<UserDto> users = queryBudget.select(1)
+                .call(() -> userService.getAllUsers());
 
         assertThat(users, hasSize(3));
         for (UserDto user : users) {
@@ -93,10 +100,10 @@ public class UserServiceImplIntegrationTest {
         UserDto userDto = userService.createUser(this.userDto);
         int id = userDto.getId();
 
-        userService.deleteUser(id);
+        queryBudget.select(1).delete(1)
+                .run(() -> userService.deleteUser(id));
 
-        assertThrows(JpaObjectRetrievalFailureException.class,
-                () -> userRepository.getReferenceById(id));
+        assertThat(userRepository.findById(id), is(Optional.empty()));
     }
 
 }
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void overlaps_halfOpenIntervals() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(10, 20, 1);
+        tree.add(30, 40, 2);
+
+        assertThat(tree.overlaps(15, 16), is(true));
+        assertThat(tree.overlaps(20, 30), is(false));
+        assertThat(tree.overlaps(0, 10), is(false));
+        assertThat(tree.overlaps(19, 31), is(true));
+        assertThat(tree.overlaps(40, 50), is(false));
+    }
+
+    @Test
+    void remove_freesInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(10, 20, 1);
+        tree.add(10, 15, 2);
+
+        assertThat(tree.remove(10, 1), is(true));
+        assertThat(tree.remove(10, 1), is(false));
+        assertThat(tree.size(), is(1));
+        assertThat(tree.overlaps(16, 18), is(false));
+        assertThat(tree.overlaps(12, 18), is(true));
+    }
+
+    @Test
+    void removeEndedBefore_keepsUnfinishedIntervals() {
+        IntervalTree tree = new IntervalTree();
+        Random random = new Random(7);
+        int unfinished = 0;
+        for (int id = 0; id < 500; id++) {
+            long start = random.nextInt(1000);
+            long end = start + 1 + random.nextInt(100);
+            tree.add(start, end, id);
+            if (end > 500) {
+                unfinished++;
+            }
+        }
+
+        assertThat(tree.removeEndedBefore(500), is(500 - unfinished));
+        assertThat(tree.size(), is(unfinished));
+        assertThat(tree.findOverlapping(0, 2000).size(), is(unfinished));
+        assertThat(tree.removeEndedBefore(500), is(0));
+    }
+
+    @Test
+    void findOverlapping_matchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(500);
+            tree.add(start, end, id);
+            intervals.add(new long[]{start, end, id});
+        }
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(1000);
+            List<Integer> expected = new ArrayList<>();
+            for (long[] interval : intervals) {
+                if (interval[0] < end && interval[1] > start) {
+                    expected.add((int) interval[2]);
+                }
+            }
+
+            assertThat(tree.findOverlapping(start, end), containsInAnyOrder(expected.toArray()));
+            assertThat(tree.overlaps(start, end), is(!expected.isEmpty()));
+        }
+    }
+}